@@ -0,0 +1,471 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jcustenborder.kafka.connect.utils.data.SchemaFingerprint;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact codec for streams of structs. A schema is written once per stream, the first time a
+ * struct with the schema is written, and structs refer to it by id. Field values are written
+ * positionally in field order without field names.
+ *
+ * The codec works with any Jackson {@link JsonFactory}. Binary formats like Smile or CBOR can be
+ * used by passing their factory, the default factory writes JSON.
+ *
+ * The fingerprint written with a schema is used by decoders of the same codec to share schema
+ * instances between streams, so identity based caches downstream stay effective.
+ *
+ * Each struct is written as a root level array. A schema definition is
+ * {@code [0, id, fingerprint, schema]} and a struct is {@code [1, id, value, ...]}. Nested structs
+ * are arrays of their field values, maps are arrays of alternating keys and values.
+ */
+public class StructCodec {
+  static final int SCHEMA = 0;
+  static final int STRUCT = 1;
+
+  static final int DECODED_SCHEMA_CACHE_SIZE = 1024;
+
+  final JsonFactory factory;
+  final ObjectMapper mapper;
+  final Cache<Long, Schema> decodedSchemas = CacheBuilder.newBuilder()
+      .maximumSize(DECODED_SCHEMA_CACHE_SIZE)
+      .build();
+
+  public StructCodec() {
+    this(new JsonFactory());
+  }
+
+  /**
+   * @param factory factory used to create generators and parsers. For example a SmileFactory or a
+   *                CBORFactory.
+   */
+  public StructCodec(JsonFactory factory) {
+    Preconditions.checkNotNull(factory, "factory cannot be null.");
+    this.factory = factory;
+    this.mapper = new ObjectMapper(factory);
+    this.mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    this.mapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
+    this.mapper.configure(DeserializationFeature.USE_LONG_FOR_INTS, true);
+    this.mapper.registerModule(new SchemaSerializationModule());
+    this.mapper.registerModule(new StructSerializationModule());
+    this.mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    this.mapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+  }
+
+  /**
+   * Method is used to create an encoder that writes to a stream.
+   *
+   * @param outputStream stream to write to. Not closed by the encoder.
+   * @return encoder
+   * @throws IOException if the generator cannot be created.
+   */
+  public Encoder encoder(OutputStream outputStream) throws IOException {
+    final JsonGenerator generator = this.factory.createGenerator(outputStream);
+    generator.setCodec(this.mapper);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return new Encoder(generator);
+  }
+
+  /**
+   * Method is used to create a decoder that reads from a stream.
+   *
+   * @param inputStream stream to read from. Not closed by the decoder.
+   * @return decoder
+   * @throws IOException if the parser cannot be created.
+   */
+  public Decoder decoder(InputStream inputStream) throws IOException {
+    final JsonParser parser = this.factory.createParser(inputStream);
+    parser.setCodec(this.mapper);
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return new Decoder(parser, this.decodedSchemas);
+  }
+
+  /**
+   * Method is used to encode a batch of structs. Each schema is written once.
+   *
+   * @param structs structs to encode.
+   * @return encoded structs.
+   * @throws IOException if the structs cannot be written.
+   */
+  public byte[] encode(List<Struct> structs) throws IOException {
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (Encoder encoder = encoder(outputStream)) {
+      for (Struct struct : structs) {
+        encoder.write(struct);
+      }
+    }
+    return outputStream.toByteArray();
+  }
+
+  /**
+   * Method is used to decode a batch of structs written by {@link #encode(List)}.
+   *
+   * @param buffer encoded structs.
+   * @return decoded structs.
+   * @throws IOException if the structs cannot be read.
+   */
+  public List<Struct> decode(byte[] buffer) throws IOException {
+    final List<Struct> result = new ArrayList<>();
+    try (Decoder decoder = decoder(new ByteArrayInputStream(buffer))) {
+      Struct struct;
+      while (null != (struct = decoder.read())) {
+        result.add(struct);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes structs to a stream. Not thread safe.
+   */
+  public static class Encoder implements Closeable, Flushable {
+    final JsonGenerator generator;
+    final Map<Schema, Integer> schemaIds = new IdentityHashMap<>();
+    final Map<Long, Integer> fingerprintIds = new HashMap<>();
+    final List<Schema> schemas = new ArrayList<>();
+
+    Encoder(JsonGenerator generator) {
+      this.generator = generator;
+    }
+
+    /**
+     * Method is used to return the id of a schema, writing the schema if it has not been written.
+     * Schemas that are equal to a written schema reuse its id.
+     */
+    int schemaId(Schema schema) throws IOException {
+      Integer id = this.schemaIds.get(schema);
+      if (null != id) {
+        return id;
+      }
+      final long fingerprint = SchemaFingerprint.of(schema);
+      id = this.fingerprintIds.get(fingerprint);
+      if (null == id || !this.schemas.get(id).equals(schema)) {
+        id = this.schemas.size();
+        this.schemas.add(schema);
+        this.fingerprintIds.putIfAbsent(fingerprint, id);
+        this.generator.writeStartArray();
+        this.generator.writeNumber(SCHEMA);
+        this.generator.writeNumber(id);
+        this.generator.writeNumber(fingerprint);
+        this.generator.writeObject(schema);
+        this.generator.writeEndArray();
+      }
+      this.schemaIds.put(schema, id);
+      return id;
+    }
+
+    /**
+     * Method is used to write a struct.
+     *
+     * @param struct struct to write.
+     * @throws IOException if the struct cannot be written.
+     */
+    public void write(Struct struct) throws IOException {
+      Preconditions.checkNotNull(struct, "struct cannot be null.");
+      final Schema schema = struct.schema();
+      final int id = schemaId(schema);
+      this.generator.writeStartArray();
+      this.generator.writeNumber(STRUCT);
+      this.generator.writeNumber(id);
+      writeFields(struct);
+      this.generator.writeEndArray();
+    }
+
+    void writeFields(Struct struct) throws IOException {
+      for (Field field : struct.schema().fields()) {
+        writeValue(field.schema(), struct.get(field));
+      }
+    }
+
+    void writeValue(Schema schema, Object value) throws IOException {
+      if (null == value) {
+        this.generator.writeNull();
+        return;
+      }
+      switch (schema.type()) {
+        case INT8:
+          this.generator.writeNumber((Byte) value);
+          break;
+        case INT16:
+          this.generator.writeNumber((Short) value);
+          break;
+        case INT32:
+          if (Date.LOGICAL_NAME.equals(schema.name())) {
+            this.generator.writeNumber(Date.fromLogical(schema, (java.util.Date) value));
+          } else if (Time.LOGICAL_NAME.equals(schema.name())) {
+            this.generator.writeNumber(Time.fromLogical(schema, (java.util.Date) value));
+          } else {
+            this.generator.writeNumber((Integer) value);
+          }
+          break;
+        case INT64:
+          if (Timestamp.LOGICAL_NAME.equals(schema.name())) {
+            this.generator.writeNumber(Timestamp.fromLogical(schema, (java.util.Date) value));
+          } else {
+            this.generator.writeNumber((Long) value);
+          }
+          break;
+        case FLOAT32:
+          this.generator.writeNumber((Float) value);
+          break;
+        case FLOAT64:
+          this.generator.writeNumber((Double) value);
+          break;
+        case BOOLEAN:
+          this.generator.writeBoolean((Boolean) value);
+          break;
+        case STRING:
+          this.generator.writeString((String) value);
+          break;
+        case BYTES:
+          if (Decimal.LOGICAL_NAME.equals(schema.name())) {
+            this.generator.writeBinary(Decimal.fromLogical(schema, (BigDecimal) value));
+          } else if (value instanceof ByteBuffer) {
+            final ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            this.generator.writeBinary(bytes);
+          } else {
+            this.generator.writeBinary((byte[]) value);
+          }
+          break;
+        case ARRAY:
+          this.generator.writeStartArray();
+          for (Object item : (List<?>) value) {
+            writeValue(schema.valueSchema(), item);
+          }
+          this.generator.writeEndArray();
+          break;
+        case MAP:
+          this.generator.writeStartArray();
+          for (Map.Entry<?, ?> kvp : ((Map<?, ?>) value).entrySet()) {
+            writeValue(schema.keySchema(), kvp.getKey());
+            writeValue(schema.valueSchema(), kvp.getValue());
+          }
+          this.generator.writeEndArray();
+          break;
+        case STRUCT:
+          this.generator.writeStartArray();
+          writeFields((Struct) value);
+          this.generator.writeEndArray();
+          break;
+        default:
+          throw new DataException("Unsupported schema.type(): " + schema.type());
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      this.generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.generator.close();
+    }
+  }
+
+  /**
+   * Reads structs from a stream. Not thread safe.
+   */
+  public static class Decoder implements Closeable {
+    final JsonParser parser;
+    final Cache<Long, Schema> decodedSchemas;
+    final List<Schema> schemas = new ArrayList<>();
+
+    Decoder(JsonParser parser, Cache<Long, Schema> decodedSchemas) {
+      this.parser = parser;
+      this.decodedSchemas = decodedSchemas;
+    }
+
+    /**
+     * Method is used to return a schema that was decoded earlier by the codec if it is equal. This
+     * way structs read by separate decoders share schema instances.
+     */
+    Schema shared(long fingerprint, Schema schema) {
+      final Schema existing = this.decodedSchemas.getIfPresent(fingerprint);
+      if (null != existing && existing.equals(schema)) {
+        return existing;
+      }
+      this.decodedSchemas.put(fingerprint, schema);
+      return schema;
+    }
+
+    private void expect(JsonToken actual, JsonToken expected) {
+      if (expected != actual) {
+        throw new DataException(
+            String.format("Expected %s but found %s.", expected, actual)
+        );
+      }
+    }
+
+    /**
+     * Method is used to read the next struct.
+     *
+     * @return struct or null at the end of the stream.
+     * @throws IOException if the stream cannot be read.
+     */
+    public Struct read() throws IOException {
+      while (true) {
+        final JsonToken token = this.parser.nextToken();
+        if (null == token) {
+          return null;
+        }
+        expect(token, JsonToken.START_ARRAY);
+        this.parser.nextToken();
+        final int tag = this.parser.getIntValue();
+        this.parser.nextToken();
+        final int id = this.parser.getIntValue();
+
+        if (SCHEMA == tag) {
+          this.parser.nextToken();
+          final long fingerprint = this.parser.getLongValue();
+          this.parser.nextToken();
+          final Schema schema = this.parser.readValueAs(Schema.class);
+          if (id != this.schemas.size()) {
+            throw new DataException(
+                String.format("Schema id %s is out of order. Expected %s.", id, this.schemas.size())
+            );
+          }
+          this.schemas.add(shared(fingerprint, schema));
+          expect(this.parser.nextToken(), JsonToken.END_ARRAY);
+        } else if (STRUCT == tag) {
+          if (id < 0 || id >= this.schemas.size()) {
+            throw new DataException(String.format("Schema id %s has not been defined.", id));
+          }
+          final Struct struct = readFields(this.schemas.get(id));
+          expect(this.parser.nextToken(), JsonToken.END_ARRAY);
+          return struct;
+        } else {
+          throw new DataException(String.format("Unknown tag %s.", tag));
+        }
+      }
+    }
+
+    Struct readFields(Schema schema) throws IOException {
+      final Struct struct = new Struct(schema);
+      for (Field field : schema.fields()) {
+        this.parser.nextToken();
+        struct.put(field, readValue(field.schema()));
+      }
+      return struct;
+    }
+
+    Object readValue(Schema schema) throws IOException {
+      final JsonToken token = this.parser.currentToken();
+      if (JsonToken.VALUE_NULL == token) {
+        return null;
+      }
+      switch (schema.type()) {
+        case INT8:
+          return (byte) this.parser.getIntValue();
+        case INT16:
+          return (short) this.parser.getIntValue();
+        case INT32:
+          if (Date.LOGICAL_NAME.equals(schema.name())) {
+            return Date.toLogical(schema, this.parser.getIntValue());
+          } else if (Time.LOGICAL_NAME.equals(schema.name())) {
+            return Time.toLogical(schema, this.parser.getIntValue());
+          }
+          return this.parser.getIntValue();
+        case INT64:
+          if (Timestamp.LOGICAL_NAME.equals(schema.name())) {
+            return Timestamp.toLogical(schema, this.parser.getLongValue());
+          }
+          return this.parser.getLongValue();
+        case FLOAT32:
+          return this.parser.getFloatValue();
+        case FLOAT64:
+          return this.parser.getDoubleValue();
+        case BOOLEAN:
+          return this.parser.getBooleanValue();
+        case STRING:
+          return this.parser.getText();
+        case BYTES:
+          final byte[] bytes = this.parser.getBinaryValue();
+          if (Decimal.LOGICAL_NAME.equals(schema.name())) {
+            return Decimal.toLogical(schema, bytes);
+          }
+          return bytes;
+        case ARRAY: {
+          expect(token, JsonToken.START_ARRAY);
+          final List<Object> list = new ArrayList<>();
+          while (JsonToken.END_ARRAY != this.parser.nextToken()) {
+            list.add(readValue(schema.valueSchema()));
+          }
+          return list;
+        }
+        case MAP: {
+          expect(token, JsonToken.START_ARRAY);
+          final Map<Object, Object> map = new LinkedHashMap<>();
+          while (JsonToken.END_ARRAY != this.parser.nextToken()) {
+            final Object key = readValue(schema.keySchema());
+            this.parser.nextToken();
+            map.put(key, readValue(schema.valueSchema()));
+          }
+          return map;
+        }
+        case STRUCT: {
+          expect(token, JsonToken.START_ARRAY);
+          final Struct struct = readFields(schema);
+          expect(this.parser.nextToken(), JsonToken.END_ARRAY);
+          return struct;
+        }
+        default:
+          throw new DataException("Unsupported schema.type(): " + schema.type());
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.parser.close();
+    }
+  }
+}
@@ -24,6 +24,7 @@ import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.base.Preconditions;
 import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.Struct;
@@ -31,15 +32,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 public class StructSerializationModule extends SimpleModule {
   private static final Logger log = LoggerFactory.getLogger(StructSerializationModule.class);
 
   public StructSerializationModule() {
+    this(true);
+  }
+
+  /**
+   * @param validate flag to determine if structs are validated before they are serialized. Disable
+   *                 when the structs are known to be valid, for example when they were validated
+   *                 by the producer of the data.
+   */
+  public StructSerializationModule(boolean validate) {
     super();
-    addSerializer(Struct.class, new Serializer());
+    addSerializer(Struct.class, new Serializer(validate));
     addDeserializer(Struct.class, new Deserializer());
   }
 
@@ -61,22 +70,48 @@ public class StructSerializationModule extends SimpleModule {
     }
   }
 
+  /**
+   * Writes the same document as serializing a {@link Storage} with a {@link KeyValue} per field,
+   * without creating them. Null values are omitted like the NON_NULL inclusion of
+   * {@link ObjectMapperFactory}.
+   */
   static class Serializer extends JsonSerializer<Struct> {
+    final boolean validate;
+
+    Serializer(boolean validate) {
+      this.validate = validate;
+    }
+
     @Override
     public void serialize(Struct struct, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException, JsonProcessingException {
-      struct.validate();
-      Storage result = new Storage();
-      result.schema = struct.schema();
-      result.fieldValues = new ArrayList<>();
-      for (Field field : struct.schema().fields()) {
-        log.trace("serialize() - Processing field '{}'", field.name());
-        KeyValue keyValue = new KeyValue();
-        keyValue.name = field.name();
-        keyValue.schema = field.schema();
-        keyValue.value(struct.get(field));
-        result.fieldValues.add(keyValue);
+      if (this.validate) {
+        struct.validate();
+      }
+      final Schema schema = struct.schema();
+      jsonGenerator.writeStartObject();
+      jsonGenerator.writeFieldName("schema");
+      serializerProvider.defaultSerializeValue(schema, jsonGenerator);
+      jsonGenerator.writeFieldName("fieldValues");
+      jsonGenerator.writeStartArray();
+      for (Field field : schema.fields()) {
+        final Object value = struct.get(field);
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeStringField("name", field.name());
+        jsonGenerator.writeFieldName("schema");
+        serializerProvider.defaultSerializeValue(field.schema(), jsonGenerator);
+        if (null != value) {
+          if (Schema.Type.STRUCT == field.schema().type()) {
+            Preconditions.checkState(value instanceof Struct, "value must be a struct.");
+            jsonGenerator.writeFieldName("struct");
+          } else {
+            jsonGenerator.writeFieldName("storage");
+          }
+          serializerProvider.defaultSerializeValue(value, jsonGenerator);
+        }
+        jsonGenerator.writeEndObject();
       }
-      jsonGenerator.writeObject(result);
+      jsonGenerator.writeEndArray();
+      jsonGenerator.writeEndObject();
     }
   }
 
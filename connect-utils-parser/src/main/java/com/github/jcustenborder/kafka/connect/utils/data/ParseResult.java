@@ -0,0 +1,188 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data;
+
+import com.google.common.base.MoreObjects;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.DataException;
+
+/**
+ * Result of parsing a value without throwing an exception. A failed result holds a code
+ * describing the failure and the exception thrown by the type parser, if any. The message and the
+ * exception for the failure are only created when they are requested.
+ */
+public final class ParseResult {
+  /**
+   * Outcome of a parse.
+   */
+  public enum Code {
+    /**
+     * The input was parsed. The value is null if the input was null.
+     */
+    SUCCESS,
+    /**
+     * The input was null and the schema is not optional.
+     */
+    NULL_NOT_ALLOWED,
+    /**
+     * There is no type parser registered for the schema.
+     */
+    UNSUPPORTED_SCHEMA,
+    /**
+     * The type parser could not parse the input.
+     */
+    INVALID_INPUT
+  }
+
+  static final ParseResult NULL = new ParseResult(Code.SUCCESS, null, null, null, null, null);
+
+  final Code code;
+  final Object value;
+  final Schema schema;
+  final Object input;
+  final Class<?> expectedClass;
+  final Exception cause;
+  String message;
+
+  private ParseResult(Code code, Object value, Schema schema, Object input, Class<?> expectedClass, Exception cause) {
+    this.code = code;
+    this.value = value;
+    this.schema = schema;
+    this.input = input;
+    this.expectedClass = expectedClass;
+    this.cause = cause;
+  }
+
+  static ParseResult success(Object value) {
+    return null == value ? NULL : new ParseResult(Code.SUCCESS, value, null, null, null, null);
+  }
+
+  static ParseResult failure(Code code, Schema schema, Object input, Class<?> expectedClass, Exception cause) {
+    // The input could be a CharSequence over a buffer that is reused so capture it now.
+    final Object capturedInput = input instanceof CharSequence ? input.toString() : input;
+    return new ParseResult(code, null, schema, capturedInput, expectedClass, cause);
+  }
+
+  /**
+   * Flag to determine if the input was parsed.
+   *
+   * @return true if the input was parsed.
+   */
+  public boolean isSuccess() {
+    return Code.SUCCESS == this.code;
+  }
+
+  /**
+   * Code describing the outcome of the parse.
+   *
+   * @return outcome of the parse.
+   */
+  public Code code() {
+    return this.code;
+  }
+
+  /**
+   * Method is used to return the parsed value.
+   *
+   * @return the parsed value.
+   * @throws RuntimeException the same exception the throwing parse methods would have thrown if
+   *                          the parse failed.
+   */
+  public Object value() {
+    if (!isSuccess()) {
+      throw exception();
+    }
+    return this.value;
+  }
+
+  /**
+   * Method is used to return the parsed value or a default when the parse failed.
+   *
+   * @param other value to return if the parse failed.
+   * @return the parsed value or other.
+   */
+  public Object orElse(Object other) {
+    return isSuccess() ? this.value : other;
+  }
+
+  /**
+   * Exception thrown by the type parser.
+   *
+   * @return exception thrown by the type parser or null.
+   */
+  public Exception cause() {
+    return this.cause;
+  }
+
+  /**
+   * Message describing the failure. The message is formatted the first time this is called.
+   *
+   * @return message describing the failure or null if the parse succeeded.
+   */
+  public String message() {
+    if (isSuccess()) {
+      return null;
+    }
+    if (null == this.message) {
+      switch (this.code) {
+        case NULL_NOT_ALLOWED:
+          this.message = "schema is not optional so input cannot be null.";
+          break;
+        case UNSUPPORTED_SCHEMA:
+          this.message = String.format("Schema %s(%s) is not supported", this.schema.type(), this.schema.name());
+          break;
+        default:
+          this.message = String.format(
+              "Could not parse '%s' to '%s'",
+              this.input,
+              this.expectedClass.getSimpleName()
+          );
+          break;
+      }
+    }
+    return this.message;
+  }
+
+  /**
+   * Method is used to create the exception the throwing parse methods would throw for this
+   * failure.
+   *
+   * @return exception for the failure.
+   * @throws IllegalStateException if the parse succeeded.
+   */
+  public RuntimeException exception() {
+    switch (this.code) {
+      case NULL_NOT_ALLOWED:
+        return new NullPointerException(message());
+      case UNSUPPORTED_SCHEMA:
+        return new UnsupportedOperationException(message());
+      case INVALID_INPUT:
+        return new DataException(message(), this.cause);
+      default:
+        throw new IllegalStateException("Cannot create an exception for a successful parse.");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .omitNullValues()
+        .add("code", this.code)
+        .add("value", this.value)
+        .add("message", message())
+        .toString();
+  }
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import org.apache.kafka.connect.data.Schema;
+
+import java.util.BitSet;
+
+/**
+ * Result of parsing a column of values that share the same schema. Values for the primitive
+ * types are stored in a primitive array of the matching type. All other types are stored in an
+ * Object array. Null inputs and inputs that could not be parsed are tracked by index.
+ */
+public class ParsedColumn {
+  /**
+   * Storage used for the values of a column.
+   */
+  public enum Storage {
+    BOOLEAN,
+    INT8,
+    INT16,
+    INT32,
+    INT64,
+    FLOAT32,
+    FLOAT64,
+    OBJECT
+  }
+
+  final Schema schema;
+  final Storage storage;
+  final int size;
+  final BitSet nulls;
+  final BitSet failed;
+  ParseResult[] failures;
+
+  boolean[] booleans;
+  byte[] int8s;
+  short[] int16s;
+  int[] int32s;
+  long[] int64s;
+  float[] float32s;
+  double[] float64s;
+  Object[] objects;
+
+  ParsedColumn(Schema schema, int size) {
+    this.schema = schema;
+    this.size = size;
+    this.storage = storage(schema);
+    this.nulls = new BitSet(size);
+    this.failed = new BitSet(size);
+
+    switch (this.storage) {
+      case BOOLEAN:
+        this.booleans = new boolean[size];
+        break;
+      case INT8:
+        this.int8s = new byte[size];
+        break;
+      case INT16:
+        this.int16s = new short[size];
+        break;
+      case INT32:
+        this.int32s = new int[size];
+        break;
+      case INT64:
+        this.int64s = new long[size];
+        break;
+      case FLOAT32:
+        this.float32s = new float[size];
+        break;
+      case FLOAT64:
+        this.float64s = new double[size];
+        break;
+      default:
+        this.objects = new Object[size];
+        break;
+    }
+  }
+
+  static Storage storage(Schema schema) {
+    if (null != schema.name()) {
+      return Storage.OBJECT;
+    }
+    switch (schema.type()) {
+      case BOOLEAN:
+        return Storage.BOOLEAN;
+      case INT8:
+        return Storage.INT8;
+      case INT16:
+        return Storage.INT16;
+      case INT32:
+        return Storage.INT32;
+      case INT64:
+        return Storage.INT64;
+      case FLOAT32:
+        return Storage.FLOAT32;
+      case FLOAT64:
+        return Storage.FLOAT64;
+      default:
+        return Storage.OBJECT;
+    }
+  }
+
+  void markNull(int index) {
+    this.nulls.set(index);
+  }
+
+  void markFailed(int index, ParseResult failure) {
+    if (null == this.failures) {
+      this.failures = new ParseResult[this.size];
+    }
+    this.failed.set(index);
+    this.failures[index] = failure;
+  }
+
+  /**
+   * Schema the column was parsed with.
+   *
+   * @return schema for the column.
+   */
+  public Schema schema() {
+    return this.schema;
+  }
+
+  /**
+   * The type of array the values are stored in.
+   *
+   * @return storage for the column.
+   */
+  public Storage storage() {
+    return this.storage;
+  }
+
+  /**
+   * Number of values in the column.
+   *
+   * @return number of values.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Method is used to determine if the input at the index was null.
+   *
+   * @param index index to check.
+   * @return true if the input was null.
+   */
+  public boolean isNull(int index) {
+    Preconditions.checkElementIndex(index, this.size);
+    return this.nulls.get(index);
+  }
+
+  /**
+   * Method is used to determine if the input at the index could not be parsed.
+   *
+   * @param index index to check.
+   * @return true if the input failed to parse.
+   */
+  public boolean isFailed(int index) {
+    Preconditions.checkElementIndex(index, this.size);
+    return this.failed.get(index);
+  }
+
+  /**
+   * Method is used to return the result for an index that failed to parse. The message for the
+   * failure is not formatted until it is requested.
+   *
+   * @param index index to return the failure for.
+   * @return result describing the failure or null if the index was parsed.
+   */
+  public ParseResult failureResult(int index) {
+    Preconditions.checkElementIndex(index, this.size);
+    return null == this.failures ? null : this.failures[index];
+  }
+
+  /**
+   * Method is used to return the exception for an index that failed to parse. This is the same
+   * exception {@link Parser#parseString(Schema, String)} would have thrown for the input.
+   *
+   * @param index index to return the exception for.
+   * @return exception for the failure or null if the index was parsed.
+   */
+  public RuntimeException failure(int index) {
+    final ParseResult result = failureResult(index);
+    return null == result ? null : result.exception();
+  }
+
+  /**
+   * Number of values that failed to parse.
+   *
+   * @return number of failures.
+   */
+  public int failureCount() {
+    return this.failed.cardinality();
+  }
+
+  /**
+   * Indexes of the values that failed to parse.
+   *
+   * @return copy of the failed indexes.
+   */
+  public BitSet failedIndexes() {
+    return (BitSet) this.failed.clone();
+  }
+
+  /**
+   * Indexes of the values that were null.
+   *
+   * @return copy of the null indexes.
+   */
+  public BitSet nullIndexes() {
+    return (BitSet) this.nulls.clone();
+  }
+
+  private void checkStorage(Storage expected) {
+    Preconditions.checkState(
+        expected == this.storage,
+        "Column is stored as %s not %s.",
+        this.storage,
+        expected
+    );
+  }
+
+  public boolean[] booleans() {
+    checkStorage(Storage.BOOLEAN);
+    return this.booleans;
+  }
+
+  public byte[] int8s() {
+    checkStorage(Storage.INT8);
+    return this.int8s;
+  }
+
+  public short[] int16s() {
+    checkStorage(Storage.INT16);
+    return this.int16s;
+  }
+
+  public int[] int32s() {
+    checkStorage(Storage.INT32);
+    return this.int32s;
+  }
+
+  public long[] int64s() {
+    checkStorage(Storage.INT64);
+    return this.int64s;
+  }
+
+  public float[] float32s() {
+    checkStorage(Storage.FLOAT32);
+    return this.float32s;
+  }
+
+  public double[] float64s() {
+    checkStorage(Storage.FLOAT64);
+    return this.float64s;
+  }
+
+  public Object[] objects() {
+    checkStorage(Storage.OBJECT);
+    return this.objects;
+  }
+
+  /**
+   * Method is used to return the value at the index as the Java type for the schema. This boxes
+   * primitive values.
+   *
+   * @param index index to return.
+   * @return value at the index. Null if the input was null or could not be parsed.
+   */
+  public Object get(int index) {
+    Preconditions.checkElementIndex(index, this.size);
+    if (this.nulls.get(index) || this.failed.get(index)) {
+      return null;
+    }
+    switch (this.storage) {
+      case BOOLEAN:
+        return this.booleans[index];
+      case INT8:
+        return this.int8s[index];
+      case INT16:
+        return this.int16s[index];
+      case INT32:
+        return this.int32s[index];
+      case INT64:
+        return this.int64s[index];
+      case FLOAT32:
+        return this.float32s[index];
+      case FLOAT64:
+        return this.float64s[index];
+      default:
+        return this.objects[index];
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("schemaType", this.schema.type())
+        .add("schemaName", this.schema.name())
+        .add("storage", this.storage)
+        .add("size", this.size)
+        .add("nulls", this.nulls.cardinality())
+        .add("failures", this.failed.cardinality())
+        .toString();
+  }
+}
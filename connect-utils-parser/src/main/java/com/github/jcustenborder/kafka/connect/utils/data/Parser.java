@@ -16,6 +16,7 @@
 package com.github.jcustenborder.kafka.connect.utils.data;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jcustenborder.kafka.connect.utils.data.internal.CharSequences;
 import com.github.jcustenborder.kafka.connect.utils.data.type.BooleanParser;
 import com.github.jcustenborder.kafka.connect.utils.data.type.DateTypeParser;
 import com.github.jcustenborder.kafka.connect.utils.data.type.DecimalTypeParser;
@@ -25,6 +26,7 @@ import com.github.jcustenborder.kafka.connect.utils.data.type.Int16TypeParser;
 import com.github.jcustenborder.kafka.connect.utils.data.type.Int32TypeParser;
 import com.github.jcustenborder.kafka.connect.utils.data.type.Int64TypeParser;
 import com.github.jcustenborder.kafka.connect.utils.data.type.Int8TypeParser;
+import com.github.jcustenborder.kafka.connect.utils.data.type.StringDeduplicator;
 import com.github.jcustenborder.kafka.connect.utils.data.type.StringTypeParser;
 import com.github.jcustenborder.kafka.connect.utils.data.type.TimeTypeParser;
 import com.github.jcustenborder.kafka.connect.utils.data.type.TimestampTypeParser;
@@ -44,8 +46,10 @@ import org.apache.kafka.connect.errors.DataException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -55,9 +59,11 @@ import java.util.Set;
 public class Parser {
   private static final Logger log = LoggerFactory.getLogger(Parser.class);
   final Map<ParserKey, TypeParser> typeParsers;
+  final Map<Schema, TypeParser> schemaParsers;
 
   public Parser() {
     this.typeParsers = new HashMap<>();
+    this.schemaParsers = new IdentityHashMap<>();
     registerTypeParser(Schema.BOOLEAN_SCHEMA, new BooleanParser());
     registerTypeParser(Schema.BOOLEAN_SCHEMA, new BooleanParser());
     registerTypeParser(Schema.FLOAT32_SCHEMA, new Float32TypeParser());
@@ -86,6 +92,36 @@ public class Parser {
     this.typeParsers.put(new ParserKey(schema), typeParser);
   }
 
+  /**
+   * Method is used to enable deduplication of the values parsed for a string schema. Values that
+   * were recently parsed for the schema are returned as the same String instance, which reduces
+   * heap usage for low cardinality fields. The schema is matched by instance, so pass the schema
+   * of the field being parsed, for example {@code structSchema.field("status").schema()}. Every
+   * field that uses the same schema instance is deduplicated, so the field must be built with its
+   * own schema, for example {@code SchemaBuilder.string().build()}. The shared
+   * {@link Schema#STRING_SCHEMA} and {@link Schema#OPTIONAL_STRING_SCHEMA} constants are rejected.
+   *
+   * @param schema      String schema to deduplicate values for.
+   * @param maximumSize Maximum number of distinct values to cache for the schema.
+   * @throws IllegalArgumentException if the schema is not a string schema or is one of the shared
+   *                                  string schema constants.
+   * @see StringDeduplicator
+   */
+  public final void deduplicateStrings(Schema schema, int maximumSize) {
+    Preconditions.checkNotNull(schema, "schema cannot be null.");
+    Preconditions.checkArgument(
+        Schema.Type.STRING == schema.type() && null == schema.name(),
+        "schema must be a string schema without a logical name."
+    );
+    Preconditions.checkArgument(
+        Schema.STRING_SCHEMA != schema && Schema.OPTIONAL_STRING_SCHEMA != schema,
+        "schema cannot be Schema.STRING_SCHEMA or Schema.OPTIONAL_STRING_SCHEMA. These are shared by " +
+            "every field that uses them. Build the field with its own schema, for example " +
+            "SchemaBuilder.string().build()."
+    );
+    this.schemaParsers.put(schema, new StringTypeParser(new StringDeduplicator(maximumSize)));
+  }
+
   /**
    * Method is used to parse String data to the proper Java types.
    *
@@ -97,20 +133,300 @@ public class Parser {
    * @throws NullPointerException          Exception is thrown if the schema passed is not optional and a null input value is passed.
    */
   public Object parseString(Schema schema, String input) {
-    checkSchemaAndInput(schema, input);
+    return tryParseString(schema, input).value();
+  }
 
+  /**
+   * Method is used to parse String data to the proper Java types without throwing an exception
+   * when the input cannot be parsed. The failure is described by the returned result instead.
+   *
+   * @param schema Input schema to parse the String data by.
+   * @param input  String to parse.
+   * @return Result containing the Java type specific to the schema supplied or the failure.
+   * @see #parseString(Schema, String)
+   */
+  public ParseResult tryParseString(Schema schema, String input) {
+    Preconditions.checkNotNull(schema, "schema cannot be null");
     if (null == input) {
-      return null;
+      return nullResult(schema);
+    }
+    final TypeParser parser = lookupParser(schema);
+    if (null == parser) {
+      return ParseResult.failure(ParseResult.Code.UNSUPPORTED_SCHEMA, schema, input, null, null);
     }
+    try {
+      return ParseResult.success(parser.parseString(input, schema));
+    } catch (Exception ex) {
+      return ParseResult.failure(ParseResult.Code.INVALID_INPUT, schema, input, parser.expectedClass(), ex);
+    }
+  }
 
-    TypeParser parser = findParser(schema);
+  /**
+   * Method is used to parse character data to the proper Java types without requiring a String.
+   *
+   * @param schema Input schema to parse the character data by.
+   * @param input  Characters to parse.
+   * @return Java type specific to the schema supplied.
+   * @throws DataException                 Exception is thrown when there is an exception thrown while parsing the input.
+   * @throws UnsupportedOperationException Exception is thrown if there is no type parser registered for the schema.
+   * @throws NullPointerException          Exception is thrown if the schema passed is not optional and a null input value is passed.
+   * @see TypeParser#parseCharSequence(CharSequence, Schema)
+   */
+  public Object parseCharSequence(Schema schema, CharSequence input) {
+    return tryParseCharSequence(schema, input).value();
+  }
 
+  /**
+   * Method is used to parse character data to the proper Java types without throwing an exception
+   * when the input cannot be parsed.
+   *
+   * @param schema Input schema to parse the character data by.
+   * @param input  Characters to parse.
+   * @return Result containing the Java type specific to the schema supplied or the failure.
+   * @see #parseCharSequence(Schema, CharSequence)
+   */
+  public ParseResult tryParseCharSequence(Schema schema, CharSequence input) {
+    Preconditions.checkNotNull(schema, "schema cannot be null");
+    if (null == input) {
+      return nullResult(schema);
+    }
+    final TypeParser parser = lookupParser(schema);
+    if (null == parser) {
+      return ParseResult.failure(ParseResult.Code.UNSUPPORTED_SCHEMA, schema, input, null, null);
+    }
+    try {
+      return ParseResult.success(parser.parseCharSequence(input, schema));
+    } catch (Exception ex) {
+      return ParseResult.failure(ParseResult.Code.INVALID_INPUT, schema, input, parser.expectedClass(), ex);
+    }
+  }
+
+  /**
+   * Method is used to parse a slice of a byte array to the proper Java types. This allows sources
+   * that read bytes to parse values without decoding each one to a String first.
+   *
+   * @param schema  Input schema to parse the data by.
+   * @param buffer  Buffer containing the encoded input. A null buffer is treated as a null input.
+   * @param offset  Offset of the first byte of the input.
+   * @param length  Number of bytes in the input.
+   * @param charset Charset the input is encoded with.
+   * @return Java type specific to the schema supplied.
+   * @throws DataException                 Exception is thrown when there is an exception thrown while parsing the input.
+   * @throws UnsupportedOperationException Exception is thrown if there is no type parser registered for the schema.
+   * @throws NullPointerException          Exception is thrown if the schema passed is not optional and a null input value is passed.
+   * @see TypeParser#parseBytes(byte[], int, int, Charset, Schema)
+   */
+  public Object parseBytes(Schema schema, byte[] buffer, int offset, int length, Charset charset) {
+    return tryParseBytes(schema, buffer, offset, length, charset).value();
+  }
+
+  /**
+   * Method is used to parse a slice of a byte array to the proper Java types without throwing an
+   * exception when the input cannot be parsed.
+   *
+   * @param schema  Input schema to parse the data by.
+   * @param buffer  Buffer containing the encoded input. A null buffer is treated as a null input.
+   * @param offset  Offset of the first byte of the input.
+   * @param length  Number of bytes in the input.
+   * @param charset Charset the input is encoded with.
+   * @return Result containing the Java type specific to the schema supplied or the failure.
+   * @see #parseBytes(Schema, byte[], int, int, Charset)
+   */
+  public ParseResult tryParseBytes(Schema schema, byte[] buffer, int offset, int length, Charset charset) {
+    Preconditions.checkNotNull(schema, "schema cannot be null");
+    if (null == buffer) {
+      return nullResult(schema);
+    }
+    Preconditions.checkNotNull(charset, "charset cannot be null.");
+    Preconditions.checkPositionIndexes(offset, offset + length, buffer.length);
+    final TypeParser parser = lookupParser(schema);
+    if (null == parser) {
+      return ParseResult.failure(ParseResult.Code.UNSUPPORTED_SCHEMA, schema, null, null, null);
+    }
     try {
-      Object result = parser.parseString(input, schema);
-      return result;
+      return ParseResult.success(parser.parseBytes(buffer, offset, length, charset, schema));
     } catch (Exception ex) {
-      String message = String.format("Could not parse '%s' to '%s'", input, parser.expectedClass().getSimpleName());
-      throw new DataException(message, ex);
+      return ParseResult.failure(
+          ParseResult.Code.INVALID_INPUT,
+          schema,
+          new String(buffer, offset, length, charset),
+          parser.expectedClass(),
+          ex
+      );
+    }
+  }
+
+  static ParseResult nullResult(Schema schema) {
+    return schema.isOptional() ?
+        ParseResult.NULL :
+        ParseResult.failure(ParseResult.Code.NULL_NOT_ALLOWED, schema, null, null, null);
+  }
+
+  /**
+   * Method is used to parse a column of values that share the same schema. The parser for the
+   * schema is resolved once for the entire column and values for primitive schemas are written to
+   * a primitive array. Exceptions are not thrown for values that cannot be parsed, they are
+   * reported per index by the returned column.
+   *
+   * @param schema Schema shared by every value in the column.
+   * @param input  Values to parse. Null entries are treated as null values.
+   * @param offset Index of the first value to parse.
+   * @param length Number of values to parse.
+   * @return Column containing the parsed values.
+   * @throws UnsupportedOperationException Exception is thrown if there is no type parser registered for the schema.
+   */
+  public ParsedColumn parseColumn(Schema schema, CharSequence[] input, int offset, int length) {
+    Preconditions.checkNotNull(schema, "schema cannot be null");
+    Preconditions.checkNotNull(input, "input cannot be null.");
+    Preconditions.checkPositionIndexes(offset, offset + length, input.length);
+    final TypeParser parser = findParser(schema);
+    final ParsedColumn column = new ParsedColumn(schema, length);
+    final ColumnWriter writer = columnWriter(schema, parser, column.storage);
+    final boolean optional = schema.isOptional();
+
+    for (int i = 0; i < length; i++) {
+      final CharSequence s = input[offset + i];
+      if (null == s) {
+        nullValue(column, i, optional);
+        continue;
+      }
+      try {
+        writer.write(column, i, s);
+      } catch (Exception ex) {
+        column.markFailed(
+            i,
+            ParseResult.failure(ParseResult.Code.INVALID_INPUT, schema, s, parser.expectedClass(), ex)
+        );
+      }
+    }
+    return column;
+  }
+
+  /**
+   * Method is used to parse a column of values that share the same schema.
+   *
+   * @param schema Schema shared by every value in the column.
+   * @param input  Values to parse. Null entries are treated as null values.
+   * @return Column containing the parsed values.
+   * @see #parseColumn(Schema, CharSequence[], int, int)
+   */
+  public ParsedColumn parseColumn(Schema schema, CharSequence[] input) {
+    Preconditions.checkNotNull(input, "input cannot be null.");
+    return parseColumn(schema, input, 0, input.length);
+  }
+
+  /**
+   * Method is used to parse a column of values stored as slices of a single buffer.
+   *
+   * @param schema  Schema shared by every value in the column.
+   * @param buffer  Buffer containing the encoded values.
+   * @param offsets Offset of each value in the buffer.
+   * @param lengths Length of each value in the buffer. A negative length marks a null value.
+   * @param charset Charset the values are encoded with.
+   * @return Column containing the parsed values.
+   * @see #parseColumn(Schema, CharSequence[], int, int)
+   */
+  public ParsedColumn parseColumn(Schema schema, byte[] buffer, int[] offsets, int[] lengths, Charset charset) {
+    Preconditions.checkNotNull(schema, "schema cannot be null");
+    Preconditions.checkNotNull(buffer, "buffer cannot be null.");
+    Preconditions.checkNotNull(offsets, "offsets cannot be null.");
+    Preconditions.checkNotNull(lengths, "lengths cannot be null.");
+    Preconditions.checkNotNull(charset, "charset cannot be null.");
+    Preconditions.checkArgument(
+        offsets.length == lengths.length,
+        "offsets(%s) and lengths(%s) must be the same size.",
+        offsets.length,
+        lengths.length
+    );
+    final TypeParser parser = findParser(schema);
+    final ParsedColumn column = new ParsedColumn(schema, offsets.length);
+    final ColumnWriter writer = columnWriter(schema, parser, column.storage);
+    final boolean optional = schema.isOptional();
+
+    for (int i = 0; i < offsets.length; i++) {
+      if (lengths[i] < 0) {
+        nullValue(column, i, optional);
+        continue;
+      }
+      CharSequence s = null;
+      try {
+        s = CharSequences.of(buffer, offsets[i], lengths[i], charset);
+        writer.write(column, i, s);
+      } catch (Exception ex) {
+        column.markFailed(
+            i,
+            ParseResult.failure(ParseResult.Code.INVALID_INPUT, schema, s, parser.expectedClass(), ex)
+        );
+      }
+    }
+    return column;
+  }
+
+  static void nullValue(ParsedColumn column, int index, boolean optional) {
+    column.markNull(index);
+    if (!optional) {
+      column.markFailed(index, nullResult(column.schema));
+    }
+  }
+
+  /**
+   * Writes a single parsed value to the storage of a column.
+   */
+  interface ColumnWriter {
+    void write(ParsedColumn column, int index, CharSequence input) throws Exception;
+  }
+
+  /**
+   * Method is used to select how values are written to a column. The built in parsers are called
+   * through their primitive methods so values are not boxed. Any other parser, including subclasses
+   * of the built in parsers, is called through {@link TypeParser#parseCharSequence(CharSequence, Schema)}.
+   */
+  static ColumnWriter columnWriter(Schema schema, TypeParser parser, ParsedColumn.Storage storage) {
+    switch (storage) {
+      case BOOLEAN:
+        if (parser.getClass() == BooleanParser.class) {
+          final BooleanParser booleanParser = (BooleanParser) parser;
+          return (column, index, input) -> column.booleans[index] = booleanParser.parseBoolean(input);
+        }
+        return (column, index, input) -> column.booleans[index] = (Boolean) parser.parseCharSequence(input, schema);
+      case INT8:
+        if (parser.getClass() == Int8TypeParser.class) {
+          final Int8TypeParser int8Parser = (Int8TypeParser) parser;
+          return (column, index, input) -> column.int8s[index] = int8Parser.parseByte(input);
+        }
+        return (column, index, input) -> column.int8s[index] = (Byte) parser.parseCharSequence(input, schema);
+      case INT16:
+        if (parser.getClass() == Int16TypeParser.class) {
+          final Int16TypeParser int16Parser = (Int16TypeParser) parser;
+          return (column, index, input) -> column.int16s[index] = int16Parser.parseShort(input);
+        }
+        return (column, index, input) -> column.int16s[index] = (Short) parser.parseCharSequence(input, schema);
+      case INT32:
+        if (parser.getClass() == Int32TypeParser.class) {
+          final Int32TypeParser int32Parser = (Int32TypeParser) parser;
+          return (column, index, input) -> column.int32s[index] = int32Parser.parseInt(input);
+        }
+        return (column, index, input) -> column.int32s[index] = (Integer) parser.parseCharSequence(input, schema);
+      case INT64:
+        if (parser.getClass() == Int64TypeParser.class) {
+          final Int64TypeParser int64Parser = (Int64TypeParser) parser;
+          return (column, index, input) -> column.int64s[index] = int64Parser.parseLong(input);
+        }
+        return (column, index, input) -> column.int64s[index] = (Long) parser.parseCharSequence(input, schema);
+      case FLOAT32:
+        if (parser.getClass() == Float32TypeParser.class) {
+          final Float32TypeParser float32Parser = (Float32TypeParser) parser;
+          return (column, index, input) -> column.float32s[index] = float32Parser.parseFloat(input);
+        }
+        return (column, index, input) -> column.float32s[index] = (Float) parser.parseCharSequence(input, schema);
+      case FLOAT64:
+        if (parser.getClass() == Float64TypeParser.class) {
+          final Float64TypeParser float64Parser = (Float64TypeParser) parser;
+          return (column, index, input) -> column.float64s[index] = float64Parser.parseDouble(input);
+        }
+        return (column, index, input) -> column.float64s[index] = (Double) parser.parseCharSequence(input, schema);
+      default:
+        return (column, index, input) -> column.objects[index] = parser.parseCharSequence(input, schema);
     }
   }
 
@@ -121,9 +437,19 @@ public class Parser {
     }
   }
 
-  TypeParser findParser(Schema schema) {
+  TypeParser lookupParser(Schema schema) {
+    if (!this.schemaParsers.isEmpty()) {
+      TypeParser parser = this.schemaParsers.get(schema);
+      if (null != parser) {
+        return parser;
+      }
+    }
     ParserKey parserKey = new ParserKey(schema);
-    TypeParser parser = this.typeParsers.get(parserKey);
+    return this.typeParsers.get(parserKey);
+  }
+
+  TypeParser findParser(Schema schema) {
+    TypeParser parser = lookupParser(schema);
     if (null == parser) {
       throw new UnsupportedOperationException(
           String.format("Schema %s(%s) is not supported", schema.type(), schema.name())
@@ -132,6 +458,51 @@ public class Parser {
     return parser;
   }
 
+  /**
+   * Method is used to parse a JsonNode without throwing an exception when the input cannot be
+   * parsed. Struct, array and map schemas are parsed with {@link #parseJsonNode(Schema, JsonNode)}
+   * and any exception it throws is reported by the result.
+   *
+   * @param schema Input schema to parse the JsonNode by.
+   * @param input  JsonNode to parse.
+   * @return Result containing the Java type specific to the schema supplied or the failure.
+   */
+  public ParseResult tryParseJsonNode(Schema schema, JsonNode input) {
+    Preconditions.checkNotNull(schema, "schema cannot be null");
+    if (null == input || input.isNull()) {
+      return nullResult(schema);
+    }
+
+    final Class<?> expectedClass;
+    switch (schema.type()) {
+      case STRUCT:
+        expectedClass = Struct.class;
+        break;
+      case ARRAY:
+        expectedClass = List.class;
+        break;
+      case MAP:
+        expectedClass = Map.class;
+        break;
+      default:
+        final TypeParser parser = lookupParser(schema);
+        if (null == parser) {
+          return ParseResult.failure(ParseResult.Code.UNSUPPORTED_SCHEMA, schema, input, null, null);
+        }
+        try {
+          return ParseResult.success(parser.parseJsonNode(input, schema));
+        } catch (Exception ex) {
+          return ParseResult.failure(ParseResult.Code.INVALID_INPUT, schema, input, parser.expectedClass(), ex);
+        }
+    }
+
+    try {
+      return ParseResult.success(parseJsonNode(schema, input));
+    } catch (Exception ex) {
+      return ParseResult.failure(ParseResult.Code.INVALID_INPUT, schema, input, expectedClass, ex);
+    }
+  }
+
   public Object parseJsonNode(Schema schema, JsonNode input) {
     checkSchemaAndInput(schema, input);
 
@@ -0,0 +1,108 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data.internal;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CharSequence views over slices of a byte array. This class is shared by the parsers of this
+ * module and is not part of the public API. It can change without notice.
+ */
+public final class CharSequences {
+  private CharSequences() {
+
+  }
+
+  static boolean isAsciiCompatible(Charset charset) {
+    return StandardCharsets.UTF_8.equals(charset) ||
+        StandardCharsets.US_ASCII.equals(charset) ||
+        StandardCharsets.ISO_8859_1.equals(charset);
+  }
+
+  /**
+   * Method is used to expose a slice of a byte array as a CharSequence. If the charset is ASCII
+   * compatible and the slice only contains ASCII characters the bytes are wrapped, otherwise the
+   * slice is decoded to a String.
+   *
+   * @param buffer  buffer containing the encoded input.
+   * @param offset  offset of the first byte of the input.
+   * @param length  number of bytes in the input.
+   * @param charset charset the input is encoded with.
+   * @return CharSequence for the slice.
+   * @throws IndexOutOfBoundsException if the slice is outside of the buffer.
+   */
+  public static CharSequence of(byte[] buffer, int offset, int length, Charset charset) {
+    if (offset < 0 || length < 0 || offset > buffer.length - length) {
+      throw new IndexOutOfBoundsException(
+          String.format("offset(%s) and length(%s) are outside of buffer(%s)", offset, length, buffer.length)
+      );
+    }
+    if (isAsciiCompatible(charset)) {
+      final int end = offset + length;
+      for (int i = offset; i < end; i++) {
+        if (buffer[i] < 0) {
+          return new String(buffer, offset, length, charset);
+        }
+      }
+      return new AsciiCharSequence(buffer, offset, length);
+    }
+    return new String(buffer, offset, length, charset);
+  }
+
+  /**
+   * CharSequence over a slice of a byte array that only contains ASCII characters.
+   */
+  static final class AsciiCharSequence implements CharSequence {
+    final byte[] buffer;
+    final int offset;
+    final int length;
+
+    AsciiCharSequence(byte[] buffer, int offset, int length) {
+      this.buffer = buffer;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public int length() {
+      return this.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= this.length) {
+        throw new IndexOutOfBoundsException("index " + index + " is out of range. length = " + this.length);
+      }
+      return (char) this.buffer[this.offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      if (start < 0 || end > this.length || start > end) {
+        throw new IndexOutOfBoundsException(
+            "start " + start + ", end " + end + ", length " + this.length
+        );
+      }
+      return new AsciiCharSequence(this.buffer, this.offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return new String(this.buffer, this.offset, this.length, StandardCharsets.US_ASCII);
+    }
+  }
+}
@@ -24,6 +24,21 @@ public class BooleanParser implements TypeParser {
     return Boolean.parseBoolean(s);
   }
 
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseBoolean(s);
+  }
+
+  /**
+   * Method is used to parse the input to a boolean without boxing the result.
+   *
+   * @param s input characters to parse
+   * @return parsed value.
+   */
+  public boolean parseBoolean(CharSequence s) {
+    return ParseHelper.parseBoolean(s);
+  }
+
   @Override
   public Class<?> expectedClass() {
     return Boolean.class;
@@ -16,14 +16,13 @@
 package com.github.jcustenborder.kafka.connect.utils.data.type;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
 import org.apache.kafka.connect.data.Decimal;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.errors.DataException;
 
 import java.math.BigDecimal;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
 
 public class DecimalTypeParser implements TypeParser {
   static final String NOT_FOUND_MESSAGE = String.format(
@@ -34,12 +33,27 @@ public class DecimalTypeParser implements TypeParser {
       "Invalid Decimal schema: %s parameter could not be converted to an integer.",
       Decimal.SCALE_FIELD
   );
-  final Cache<Schema, Integer> schemaCache;
+  /**
+   * Scale for each schema. Keys are weak and compared by identity so a lookup never hashes the
+   * schema parameters and entries go away with the schema.
+   */
+  final Map<Schema, Integer> schemaCache;
+  volatile SchemaScale lastSchemaScale;
+
+  static final class SchemaScale {
+    final Schema schema;
+    final int scale;
+
+    SchemaScale(Schema schema, int scale) {
+      this.schema = schema;
+      this.scale = scale;
+    }
+  }
 
   public DecimalTypeParser() {
-    this.schemaCache = CacheBuilder.newBuilder()
-        .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build();
+    this.schemaCache = new MapMaker()
+        .weakKeys()
+        .makeMap();
   }
 
   private static int scaleInternal(Schema schema) {
@@ -60,19 +74,28 @@ public class DecimalTypeParser implements TypeParser {
   }
 
   int scale(final Schema schema) {
-    int scale;
-    try {
-      scale = this.schemaCache.get(schema, () -> scaleInternal(schema));
-    } catch (Exception e) {
-      throw new DataException(e);
+    final SchemaScale last = this.lastSchemaScale;
+    if (null != last && last.schema == schema) {
+      return last.scale;
     }
+    Integer scale = this.schemaCache.get(schema);
+    if (null == scale) {
+      scale = scaleInternal(schema);
+      this.schemaCache.put(schema, scale);
+    }
+    this.lastSchemaScale = new SchemaScale(schema, scale);
     return scale;
   }
 
   @Override
   public Object parseString(String s, Schema schema) {
+    return parseCharSequence(s, schema);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
     int scale = scale(schema);
-    return new BigDecimal(s).setScale(scale);
+    return ParseHelper.parseBigDecimal(s, scale);
   }
 
   @Override
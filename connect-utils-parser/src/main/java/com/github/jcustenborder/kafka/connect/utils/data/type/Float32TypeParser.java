@@ -21,7 +21,22 @@ import org.apache.kafka.connect.data.Schema;
 public class Float32TypeParser implements TypeParser {
   @Override
   public Object parseString(String s, final Schema schema) {
-    return Float.parseFloat(s);
+    return parseFloat(s);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseFloat(s);
+  }
+
+  /**
+   * Method is used to parse the input to a float without boxing the result.
+   *
+   * @param s input characters to parse
+   * @return parsed value.
+   */
+  public float parseFloat(CharSequence s) {
+    return ParseHelper.parseFloat(s);
   }
 
   @Override
@@ -21,7 +21,22 @@ import org.apache.kafka.connect.data.Schema;
 public class Float64TypeParser implements TypeParser {
   @Override
   public Object parseString(String s, final Schema schema) {
-    return Double.parseDouble(s);
+    return parseDouble(s);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseDouble(s);
+  }
+
+  /**
+   * Method is used to parse the input to a double without boxing the result.
+   *
+   * @param s input characters to parse
+   * @return parsed value.
+   */
+  public double parseDouble(CharSequence s) {
+    return ParseHelper.parseDouble(s);
   }
 
   @Override
@@ -21,7 +21,22 @@ import org.apache.kafka.connect.data.Schema;
 public class Int16TypeParser implements TypeParser {
   @Override
   public Object parseString(String s, final Schema schema) {
-    return Short.parseShort(s);
+    return parseShort(s);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseShort(s);
+  }
+
+  /**
+   * Method is used to parse the input to a short without boxing the result.
+   *
+   * @param s input characters to parse
+   * @return parsed value.
+   */
+  public short parseShort(CharSequence s) {
+    return ParseHelper.parseShort(s);
   }
 
   @Override
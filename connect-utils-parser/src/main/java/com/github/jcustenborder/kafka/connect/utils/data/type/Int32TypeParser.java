@@ -21,7 +21,22 @@ import org.apache.kafka.connect.data.Schema;
 public class Int32TypeParser implements TypeParser {
   @Override
   public Object parseString(String s, final Schema schema) {
-    return Integer.parseInt(s);
+    return parseInt(s);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseInt(s);
+  }
+
+  /**
+   * Method is used to parse the input to an int without boxing the result.
+   *
+   * @param s input characters to parse
+   * @return parsed value.
+   */
+  public int parseInt(CharSequence s) {
+    return ParseHelper.parseInt(s);
   }
 
   @Override
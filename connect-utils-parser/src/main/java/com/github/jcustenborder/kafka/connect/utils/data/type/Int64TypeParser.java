@@ -21,7 +21,22 @@ import org.apache.kafka.connect.data.Schema;
 public class Int64TypeParser implements TypeParser {
   @Override
   public Object parseString(String s, final Schema schema) {
-    return Long.parseLong(s);
+    return parseLong(s);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseLong(s);
+  }
+
+  /**
+   * Method is used to parse the input to a long without boxing the result.
+   *
+   * @param s input characters to parse
+   * @return parsed value.
+   */
+  public long parseLong(CharSequence s) {
+    return ParseHelper.parseLong(s);
   }
 
   @Override
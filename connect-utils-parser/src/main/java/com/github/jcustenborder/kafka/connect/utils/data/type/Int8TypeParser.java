@@ -21,7 +21,22 @@ import org.apache.kafka.connect.data.Schema;
 public class Int8TypeParser implements TypeParser {
   @Override
   public Object parseString(String s, final Schema schema) {
-    return Byte.parseByte(s);
+    return parseByte(s);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseByte(s);
+  }
+
+  /**
+   * Method is used to parse the input to a byte without boxing the result.
+   *
+   * @param s input characters to parse
+   * @return parsed value.
+   */
+  public byte parseByte(CharSequence s) {
+    return ParseHelper.parseByte(s);
   }
 
   @Override
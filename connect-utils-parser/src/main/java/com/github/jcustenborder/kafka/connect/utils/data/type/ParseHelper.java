@@ -0,0 +1,382 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data.type;
+
+import java.math.BigDecimal;
+
+/**
+ * Helper methods used to parse numbers and booleans directly from a CharSequence without
+ * allocating an intermediate String. Anything outside of the simple forms handled here falls back
+ * to the JDK parsing methods so the results always match the String based parsers. Invalid input
+ * is reported with a NumberFormatException that does not capture a stack trace.
+ */
+final class ParseHelper {
+  private ParseHelper() {
+
+  }
+
+  /**
+   * Largest number of decimal digits that always fits in a long.
+   */
+  static final int MAX_LONG_DIGITS = 18;
+  static final long MAX_DOUBLE_MANTISSA = 1L << 53;
+  static final long MAX_FLOAT_MANTISSA = 1L << 24;
+  static final double[] DOUBLE_POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+      1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+      1e21, 1e22
+  };
+  static final long[] LONG_POWERS_OF_TEN = {
+      1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+      10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+      1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+  };
+  static final float[] FLOAT_POWERS_OF_TEN = {
+      1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+  };
+
+  /**
+   * NumberFormatException that does not fill in a stack trace and only formats its message when it
+   * is requested. Dirty data can fail to parse often enough that capturing the stack would be the
+   * dominant cost.
+   */
+  static final class InvalidNumberException extends NumberFormatException {
+    final String input;
+    final boolean outOfRange;
+
+    InvalidNumberException(CharSequence input, boolean outOfRange) {
+      this.input = String.valueOf(input);
+      this.outOfRange = outOfRange;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+
+    @Override
+    public String getMessage() {
+      return this.outOfRange ?
+          "Value out of range. Value:\"" + this.input + "\" Radix:10" :
+          "For input string: \"" + this.input + "\"";
+    }
+  }
+
+  static NumberFormatException numberFormatException(CharSequence s) {
+    return new InvalidNumberException(s, false);
+  }
+
+  /**
+   * Method is used to check that every character could be part of a number accepted by
+   * {@link Double#parseDouble(String)}. This lets obviously bad input fail without going through
+   * the JDK parser and the stack trace it captures.
+   */
+  static boolean isFloatingPointCandidate(CharSequence s) {
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c <= ' ' || (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F')) {
+        continue;
+      }
+      switch (c) {
+        case '+':
+        case '-':
+        case '.':
+        case 'x':
+        case 'X':
+        case 'p':
+        case 'P':
+        case 'N':
+        case 'I':
+        case 'n':
+        case 'i':
+        case 't':
+        case 'y':
+          continue;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Method is used to check that every character could be part of a number accepted by
+   * {@link BigDecimal#BigDecimal(String)}.
+   */
+  static boolean isDecimalCandidate(CharSequence s) {
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c == '+' || c == '-' || c == '.' || c == 'e' || c == 'E' || Character.isDigit(c)) {
+        continue;
+      }
+      return false;
+    }
+    return true;
+  }
+
+  static long parseLong(CharSequence s, long min, long max) {
+    if (null == s) {
+      throw numberFormatException(null);
+    }
+    final int length = s.length();
+    if (length == 0) {
+      throw numberFormatException(s);
+    }
+    int i = 0;
+    boolean negative = false;
+    long limit = -Long.MAX_VALUE;
+    final char first = s.charAt(0);
+    if (first < '0') {
+      if (first == '-') {
+        negative = true;
+        limit = Long.MIN_VALUE;
+      } else if (first != '+') {
+        throw numberFormatException(s);
+      }
+      if (length == 1) {
+        throw numberFormatException(s);
+      }
+      i++;
+    }
+    final long multiplyMin = limit / 10;
+    long result = 0;
+    while (i < length) {
+      final int digit = Character.digit(s.charAt(i++), 10);
+      if (digit < 0 || result < multiplyMin) {
+        throw numberFormatException(s);
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw numberFormatException(s);
+      }
+      result -= digit;
+    }
+    result = negative ? result : -result;
+    if (result < min || result > max) {
+      throw new InvalidNumberException(s, true);
+    }
+    return result;
+  }
+
+  static long parseLong(CharSequence s) {
+    return parseLong(s, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  static int parseInt(CharSequence s) {
+    return (int) parseLong(s, Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  static short parseShort(CharSequence s) {
+    return (short) parseLong(s, Short.MIN_VALUE, Short.MAX_VALUE);
+  }
+
+  static byte parseByte(CharSequence s) {
+    return (byte) parseLong(s, Byte.MIN_VALUE, Byte.MAX_VALUE);
+  }
+
+  /**
+   * Matches the behavior of {@link Boolean#parseBoolean(String)}.
+   *
+   * @param s input to parse
+   * @return true if the input is equal to "true" ignoring case.
+   */
+  static boolean parseBoolean(CharSequence s) {
+    final String expected = "true";
+    if (null == s || s.length() != expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < expected.length(); i++) {
+      final char c = s.charAt(i);
+      final char e = expected.charAt(i);
+      if (c != e && Character.toUpperCase(c) != Character.toUpperCase(e)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Decimal number broken down into an unscaled value and a decimal exponent. Only used when the
+   * input is a plain decimal number with at most {@link #MAX_LONG_DIGITS} significant digits.
+   */
+  static final class SimpleDecimal {
+    boolean negative;
+    long unscaled;
+    int exponent;
+    int fractionDigits;
+  }
+
+  /**
+   * Method is used to break a simple decimal number of the form [+-]digits[.digits][(e|E)[+-]digits]
+   * down into its parts.
+   *
+   * @param s            input to break down.
+   * @param allowExponent flag to determine if an exponent is allowed.
+   * @param result       result to populate.
+   * @return true if the input was in the simple form, false if the caller needs to fall back.
+   */
+  static boolean simpleDecimal(CharSequence s, boolean allowExponent, SimpleDecimal result) {
+    final int length = s.length();
+    int i = 0;
+    boolean negative = false;
+    if (length > 0) {
+      final char first = s.charAt(0);
+      if (first == '-' || first == '+') {
+        negative = first == '-';
+        i++;
+      }
+    }
+    long unscaled = 0;
+    int significantDigits = 0;
+    int digits = 0;
+    int fractionDigits = 0;
+    boolean fraction = false;
+    for (; i < length; i++) {
+      final char c = s.charAt(i);
+      if (c >= '0' && c <= '9') {
+        digits++;
+        if (fraction) {
+          fractionDigits++;
+        }
+        if (unscaled == 0 && c == '0') {
+          continue;
+        }
+        if (++significantDigits > MAX_LONG_DIGITS) {
+          return false;
+        }
+        unscaled = unscaled * 10 + (c - '0');
+      } else if (c == '.' && !fraction) {
+        fraction = true;
+      } else {
+        break;
+      }
+    }
+    if (digits == 0) {
+      return false;
+    }
+    int exponent = 0;
+    if (i < length) {
+      final char c = s.charAt(i);
+      if (!allowExponent || (c != 'e' && c != 'E')) {
+        return false;
+      }
+      i++;
+      boolean negativeExponent = false;
+      if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+        negativeExponent = s.charAt(i) == '-';
+        i++;
+      }
+      if (i == length) {
+        return false;
+      }
+      for (; i < length; i++) {
+        final char e = s.charAt(i);
+        if (e < '0' || e > '9' || exponent > 9999) {
+          return false;
+        }
+        exponent = exponent * 10 + (e - '0');
+      }
+      if (negativeExponent) {
+        exponent = -exponent;
+      }
+    }
+    result.negative = negative;
+    result.unscaled = unscaled;
+    result.fractionDigits = fractionDigits;
+    result.exponent = exponent - fractionDigits;
+    return true;
+  }
+
+  static double parseDouble(CharSequence s) {
+    final SimpleDecimal decimal = new SimpleDecimal();
+    if (simpleDecimal(s, true, decimal)) {
+      final double sign = decimal.negative ? -1D : 1D;
+      if (decimal.unscaled == 0) {
+        return sign * 0D;
+      }
+      final int exponent = decimal.exponent;
+      if (decimal.unscaled <= MAX_DOUBLE_MANTISSA && exponent >= -22 && exponent <= 22) {
+        double result = (double) decimal.unscaled;
+        if (exponent < 0) {
+          result /= DOUBLE_POWERS_OF_TEN[-exponent];
+        } else {
+          result *= DOUBLE_POWERS_OF_TEN[exponent];
+        }
+        return sign * result;
+      }
+    }
+    if (!isFloatingPointCandidate(s)) {
+      throw numberFormatException(s);
+    }
+    return Double.parseDouble(s.toString());
+  }
+
+  static float parseFloat(CharSequence s) {
+    final SimpleDecimal decimal = new SimpleDecimal();
+    if (simpleDecimal(s, true, decimal)) {
+      final float sign = decimal.negative ? -1F : 1F;
+      if (decimal.unscaled == 0) {
+        return sign * 0F;
+      }
+      final int exponent = decimal.exponent;
+      if (decimal.unscaled <= MAX_FLOAT_MANTISSA && exponent >= -10 && exponent <= 10) {
+        float result = (float) decimal.unscaled;
+        if (exponent < 0) {
+          result /= FLOAT_POWERS_OF_TEN[-exponent];
+        } else {
+          result *= FLOAT_POWERS_OF_TEN[exponent];
+        }
+        return sign * result;
+      }
+    }
+    if (!isFloatingPointCandidate(s)) {
+      throw numberFormatException(s);
+    }
+    return Float.parseFloat(s.toString());
+  }
+
+  /**
+   * Method is used to parse a BigDecimal with a fixed scale. Plain numbers that fit in a long once
+   * scaled are built directly with the requested scale, everything else is parsed and then passed
+   * to {@link BigDecimal#setScale(int)}.
+   *
+   * @param s     input to parse.
+   * @param scale scale of the result.
+   * @return BigDecimal for the input with the requested scale.
+   * @throws ArithmeticException if the input cannot be represented at the scale without rounding.
+   */
+  static BigDecimal parseBigDecimal(CharSequence s, int scale) {
+    final SimpleDecimal decimal = new SimpleDecimal();
+    if (simpleDecimal(s, false, decimal)) {
+      final long unscaled = decimal.negative ? -decimal.unscaled : decimal.unscaled;
+      final int difference = scale - decimal.fractionDigits;
+      if (difference == 0) {
+        return BigDecimal.valueOf(unscaled, scale);
+      }
+      if (difference > 0 && difference < LONG_POWERS_OF_TEN.length) {
+        final long multiplier = LONG_POWERS_OF_TEN[difference];
+        if (decimal.unscaled <= Long.MAX_VALUE / multiplier) {
+          return BigDecimal.valueOf(unscaled * multiplier, scale);
+        }
+      }
+      return BigDecimal.valueOf(unscaled, decimal.fractionDigits).setScale(scale);
+    }
+    if (!isDecimalCandidate(s)) {
+      throw numberFormatException(s);
+    }
+    return new BigDecimal(s.toString()).setScale(scale);
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data.type;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Bounded cache used to return the same String instance for repeated values. This is intended for
+ * low cardinality columns such as status or country codes where holding a separate String for
+ * every record wastes heap. The cache is a direct mapped table so a lookup is a single array read
+ * and a colliding value simply replaces the previous entry. Values from a CharSequence that are
+ * already cached are returned without allocating a String. Instances can be shared between
+ * threads, concurrent updates to the same slot only cost a cache miss.
+ */
+public class StringDeduplicator {
+  /**
+   * Strings longer than this are returned as is and never cached.
+   */
+  public static final int MAX_LENGTH = 256;
+  static final int MAX_SIZE = 1 << 20;
+
+  final String[] entries;
+  final int mask;
+
+  /**
+   * @param maximumSize maximum number of values to hold. Rounded up to the next power of two.
+   */
+  public StringDeduplicator(int maximumSize) {
+    Preconditions.checkArgument(
+        maximumSize > 0 && maximumSize <= MAX_SIZE,
+        "maximumSize must be between 1 and %s.",
+        MAX_SIZE
+    );
+    int size = Integer.highestOneBit(maximumSize);
+    if (size < maximumSize) {
+      size <<= 1;
+    }
+    this.entries = new String[size];
+    this.mask = size - 1;
+  }
+
+  static int index(int hash, int mask) {
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /**
+   * Method is used to return the cached instance equal to the input.
+   *
+   * @param s input string
+   * @return cached instance equal to the input, or the input if it was not cached.
+   */
+  public String deduplicate(String s) {
+    if (null == s || s.length() > MAX_LENGTH) {
+      return s;
+    }
+    final int hash = s.hashCode();
+    final int index = index(hash, this.mask);
+    final String entry = this.entries[index];
+    if (null != entry && entry.hashCode() == hash && entry.equals(s)) {
+      return entry;
+    }
+    this.entries[index] = s;
+    return s;
+  }
+
+  /**
+   * Method is used to return the cached instance equal to the input. A String is only allocated
+   * when the value is not already cached.
+   *
+   * @param s input characters
+   * @return cached instance equal to the input, or a new String if it was not cached.
+   */
+  public String deduplicate(CharSequence s) {
+    if (null == s) {
+      return null;
+    }
+    if (s instanceof String) {
+      return deduplicate((String) s);
+    }
+    final int length = s.length();
+    if (length > MAX_LENGTH) {
+      return s.toString();
+    }
+    int hash = 0;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + s.charAt(i);
+    }
+    final int index = index(hash, this.mask);
+    final String entry = this.entries[index];
+    if (null != entry && entry.hashCode() == hash && entry.contentEquals(s)) {
+      return entry;
+    }
+    final String result = s.toString();
+    this.entries[index] = result;
+    return result;
+  }
+}
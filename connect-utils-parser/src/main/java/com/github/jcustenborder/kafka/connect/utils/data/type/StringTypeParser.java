@@ -19,9 +19,28 @@ import com.fasterxml.jackson.databind.JsonNode;
 import org.apache.kafka.connect.data.Schema;
 
 public class StringTypeParser implements TypeParser {
+  final StringDeduplicator deduplicator;
+
+  public StringTypeParser() {
+    this(null);
+  }
+
+  /**
+   * @param deduplicator deduplicator used to return the same instance for repeated values. Null
+   *                     to return the input as is.
+   */
+  public StringTypeParser(StringDeduplicator deduplicator) {
+    this.deduplicator = deduplicator;
+  }
+
   @Override
   public Object parseString(String s, final Schema schema) {
-    return s;
+    return null == this.deduplicator ? s : this.deduplicator.deduplicate(s);
+  }
+
+  @Override
+  public Object parseCharSequence(CharSequence s, Schema schema) {
+    return null == this.deduplicator ? s.toString() : this.deduplicator.deduplicate(s);
   }
 
   @Override
@@ -31,6 +50,6 @@ public class StringTypeParser implements TypeParser {
 
   @Override
   public Object parseJsonNode(JsonNode input, Schema schema) {
-    return input.textValue();
+    return parseString(input.textValue(), schema);
   }
 }
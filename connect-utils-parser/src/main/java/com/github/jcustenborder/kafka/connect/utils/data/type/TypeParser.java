@@ -16,8 +16,11 @@
 package com.github.jcustenborder.kafka.connect.utils.data.type;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.github.jcustenborder.kafka.connect.utils.data.internal.CharSequences;
 import org.apache.kafka.connect.data.Schema;
 
+import java.nio.charset.Charset;
+
 public interface TypeParser {
   /**
    * Method is used to parse a String to an object representation of a Kafka Connect Type
@@ -28,6 +31,37 @@ public interface TypeParser {
    */
   Object parseString(String s, Schema schema);
 
+  /**
+   * Method is used to parse a CharSequence to an object representation of a Kafka Connect Type. The
+   * default implementation converts the input to a String and calls
+   * {@link #parseString(String, Schema)}. Implementations can override this to parse directly from
+   * the supplied characters.
+   *
+   * @param s      input characters to parse
+   * @param schema Schema to parse the input for.
+   * @return Object representation of the Kafka Connect Type
+   */
+  default Object parseCharSequence(CharSequence s, Schema schema) {
+    return parseString(s.toString(), schema);
+  }
+
+  /**
+   * Method is used to parse a slice of a byte array to an object representation of a Kafka Connect
+   * Type. When the charset is ASCII compatible and the slice only contains ASCII characters the
+   * bytes are handed to {@link #parseCharSequence(CharSequence, Schema)} without being decoded to a
+   * String first.
+   *
+   * @param buffer  buffer containing the encoded input.
+   * @param offset  offset of the first byte of the input.
+   * @param length  number of bytes in the input.
+   * @param charset charset the input is encoded with.
+   * @param schema  Schema to parse the input for.
+   * @return Object representation of the Kafka Connect Type
+   */
+  default Object parseBytes(byte[] buffer, int offset, int length, Charset charset, Schema schema) {
+    return parseCharSequence(CharSequences.of(buffer, offset, length, charset), schema);
+  }
+
   /**
    * Method is used to return the expected class for the conversion. This is mainly used for
    * error messages when a type cannot be parsed.
@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data.type;
+
+import com.github.jcustenborder.kafka.connect.utils.data.Parser;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public class CharSequenceParserTest {
+  Parser parser;
+
+  @BeforeEach
+  public void before() {
+    this.parser = new Parser();
+  }
+
+  static class TestCase {
+    final Schema schema;
+    final String input;
+
+    TestCase(Schema schema, String input) {
+      this.schema = schema;
+      this.input = input;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s(%s) '%s'", this.schema.type(), this.schema.name(), this.input);
+    }
+  }
+
+  static void of(List<TestCase> tests, Schema schema, String... inputs) {
+    for (String input : inputs) {
+      tests.add(new TestCase(schema, input));
+    }
+  }
+
+  static Object parseOrException(ParseCall call) {
+    try {
+      return call.parse();
+    } catch (DataException ex) {
+      return DataException.class;
+    }
+  }
+
+  interface ParseCall {
+    Object parse();
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> matchesParseString() {
+    final Random random = new Random(1234L);
+    List<TestCase> tests = new ArrayList<>();
+    final String[] integers = {
+        "0", "-0", "+0", "1", "-1", "+1", "127", "-128", "128", "-129", "32767", "-32768", "32768",
+        "2147483647", "-2147483648", "2147483648", "9223372036854775807", "-9223372036854775808",
+        "9223372036854775808", "", "-", "+", "asdf", "1.0", " 1", "0001", "١٢"
+    };
+    of(tests, Schema.INT8_SCHEMA, integers);
+    of(tests, Schema.INT16_SCHEMA, integers);
+    of(tests, Schema.INT32_SCHEMA, integers);
+    of(tests, Schema.INT64_SCHEMA, integers);
+
+    final String[] floats = {
+        "0", "-0", "0.0", "-0.0", "1", "1.5", "-1.5", ".5", "5.", "1e10", "1E-10", "1.25e+3",
+        "3.4028235E38", "1.4E-45", "1.7976931348623157E308", "4.9E-324", "0.1", "0.3", "123456789",
+        "1234567.891", "123456789012345678901234567890", "NaN", "Infinity", "-Infinity", "1d",
+        "1f", " 1 ", "0x1p3", "", ".", "e5", "1e", "asdf", "0.000000000000000000000001"
+    };
+    of(tests, Schema.FLOAT32_SCHEMA, floats);
+    of(tests, Schema.FLOAT64_SCHEMA, floats);
+    for (int i = 0; i < 200; i++) {
+      of(tests, Schema.FLOAT32_SCHEMA, Float.toString(random.nextFloat() * random.nextInt(100000)));
+      of(tests, Schema.FLOAT64_SCHEMA, Double.toString(random.nextDouble() * random.nextInt(100000)));
+      of(tests, Schema.FLOAT64_SCHEMA, String.format("%.3f", random.nextDouble() * 1000D));
+    }
+
+    of(tests, Schema.BOOLEAN_SCHEMA, "true", "TRUE", "True", "false", "FALSE", "", "yes", "truee");
+
+    final String[] decimals = {
+        "0", "-0", "0.0", "12345", "-12345.001", "+1.5", "1.", ".5", "1e3", "123456789012345678901234",
+        "0.0001", "", "-", "asdf", "1.23456"
+    };
+    for (int scale = 0; scale < 6; scale++) {
+      of(tests, Decimal.schema(scale), decimals);
+    }
+
+    return tests.stream().map(testCase -> dynamicTest(testCase.toString(), () -> {
+      final Object expected = parseOrException(() -> parser.parseString(testCase.schema, testCase.input));
+      final Object charSequence = parseOrException(() -> parser.parseCharSequence(testCase.schema, new StringBuilder(testCase.input)));
+      assertEquals(expected, charSequence, "parseCharSequence");
+      for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16LE)) {
+        if (!charset.newEncoder().canEncode(testCase.input)) {
+          continue;
+        }
+        final byte[] encoded = testCase.input.getBytes(charset);
+        final byte[] buffer = new byte[encoded.length + 6];
+        System.arraycopy(encoded, 0, buffer, 3, encoded.length);
+        final Object bytes = parseOrException(() -> parser.parseBytes(testCase.schema, buffer, 3, encoded.length, charset));
+        assertEquals(expected, bytes, "parseBytes " + charset);
+      }
+    }));
+  }
+
+  @Test
+  public void nullInput() {
+    assertNull(this.parser.parseCharSequence(Schema.OPTIONAL_INT32_SCHEMA, null));
+    assertNull(this.parser.parseBytes(Schema.OPTIONAL_INT32_SCHEMA, null, 0, 0, StandardCharsets.UTF_8));
+    assertThrows(NullPointerException.class, () -> this.parser.parseCharSequence(Schema.INT32_SCHEMA, null));
+  }
+
+  @Test
+  public void sliceOutOfBounds() {
+    final byte[] buffer = "1234".getBytes(StandardCharsets.UTF_8);
+    assertThrows(IndexOutOfBoundsException.class, () -> this.parser.parseBytes(Schema.INT32_SCHEMA, buffer, 2, 3, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void stringSchema() {
+    final byte[] buffer = "abcdef".getBytes(StandardCharsets.UTF_8);
+    assertEquals("cde", this.parser.parseBytes(Schema.STRING_SCHEMA, buffer, 2, 3, StandardCharsets.UTF_8));
+    assertEquals("abc", this.parser.parseCharSequence(Schema.STRING_SCHEMA, new StringBuilder("abc")));
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data.type;
+
+import com.github.jcustenborder.kafka.connect.utils.data.ParseResult;
+import com.github.jcustenborder.kafka.connect.utils.data.ParsedColumn;
+import com.github.jcustenborder.kafka.connect.utils.data.Parser;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnParserTest {
+  Parser parser;
+
+  @BeforeEach
+  public void before() {
+    this.parser = new Parser();
+  }
+
+  @Test
+  public void int32() {
+    final String[] input = new String[]{"1", "2", null, "asdf", "2147483647"};
+    final ParsedColumn column = this.parser.parseColumn(Schema.OPTIONAL_INT32_SCHEMA, input);
+    assertEquals(ParsedColumn.Storage.INT32, column.storage());
+    assertEquals(5, column.size());
+    assertEquals(1, column.int32s()[0]);
+    assertEquals(2, column.int32s()[1]);
+    assertEquals(Integer.MAX_VALUE, column.int32s()[4]);
+    assertTrue(column.isNull(2));
+    assertFalse(column.isFailed(2));
+    assertTrue(column.isFailed(3));
+    assertTrue(column.failure(3) instanceof DataException);
+    assertNull(column.failure(0));
+    assertEquals(1, column.failureCount());
+    assertNull(column.get(3));
+    assertEquals(2, column.get(1));
+    assertThrows(IllegalStateException.class, column::int64s);
+  }
+
+  @Test
+  public void requiredNull() {
+    final ParsedColumn column = this.parser.parseColumn(Schema.INT64_SCHEMA, new String[]{"1", null});
+    assertTrue(column.isNull(1));
+    assertTrue(column.isFailed(1));
+    assertTrue(column.failure(1) instanceof NullPointerException);
+    assertEquals(ParseResult.Code.NULL_NOT_ALLOWED, column.failureResult(1).code());
+  }
+
+  @Test
+  public void offset() {
+    final String[] input = new String[]{"1.5", "2.5", "3.5", "4.5"};
+    final ParsedColumn column = this.parser.parseColumn(Schema.FLOAT64_SCHEMA, input, 1, 2);
+    assertArrayEquals(new double[]{2.5D, 3.5D}, column.float64s());
+  }
+
+  @Test
+  public void matchesParseString() {
+    final Schema[] schemas = new Schema[]{
+        Schema.BOOLEAN_SCHEMA,
+        Schema.INT8_SCHEMA,
+        Schema.INT16_SCHEMA,
+        Schema.INT32_SCHEMA,
+        Schema.INT64_SCHEMA,
+        Schema.FLOAT32_SCHEMA,
+        Schema.FLOAT64_SCHEMA,
+        Schema.STRING_SCHEMA,
+        Decimal.schema(2)
+    };
+    final String[] input = new String[]{"1", "-12", "true", "127", "1.25", "x"};
+    for (Schema schema : schemas) {
+      final ParsedColumn column = this.parser.parseColumn(schema, input);
+      for (int i = 0; i < input.length; i++) {
+        Object expected;
+        try {
+          expected = this.parser.parseString(schema, input[i]);
+        } catch (DataException ex) {
+          expected = null;
+          assertTrue(column.isFailed(i), schema.type() + " " + input[i]);
+        }
+        assertEquals(expected, column.get(i), schema.type() + " " + input[i]);
+      }
+    }
+  }
+
+  @Test
+  public void customParser() {
+    this.parser.registerTypeParser(Schema.INT32_SCHEMA, new Int32TypeParser() {
+      @Override
+      public Object parseCharSequence(CharSequence s, Schema schema) {
+        return s.length();
+      }
+    });
+    final ParsedColumn column = this.parser.parseColumn(Schema.INT32_SCHEMA, new String[]{"abc"});
+    assertEquals(3, column.int32s()[0]);
+  }
+
+  @Test
+  public void bytes() {
+    final byte[] buffer = "12,3.45,,abc".getBytes(StandardCharsets.UTF_8);
+    final ParsedColumn column = this.parser.parseColumn(
+        Decimal.builder(2).optional().build(),
+        buffer,
+        new int[]{0, 3, 8, 8},
+        new int[]{2, 4, -1, 4},
+        StandardCharsets.UTF_8
+    );
+    assertEquals(ParsedColumn.Storage.OBJECT, column.storage());
+    assertEquals(new BigDecimal("12.00"), column.get(0));
+    assertEquals(new BigDecimal("3.45"), column.get(1));
+    assertTrue(column.isNull(2));
+    assertTrue(column.isFailed(3));
+  }
+
+  @Test
+  public void bytesInvalidSlice() {
+    final byte[] buffer = "12,34".getBytes(StandardCharsets.UTF_8);
+    final ParsedColumn column = this.parser.parseColumn(
+        Schema.INT32_SCHEMA,
+        buffer,
+        new int[]{0, 3, 4},
+        new int[]{2, 2, 10},
+        StandardCharsets.UTF_8
+    );
+    assertEquals(12, column.get(0));
+    assertEquals(34, column.get(1));
+    assertTrue(column.isFailed(2));
+  }
+
+  @Test
+  public void unsupported() {
+    assertThrows(UnsupportedOperationException.class, () -> {
+      this.parser.parseColumn(Schema.BYTES_SCHEMA, new String[]{"a"});
+    });
+  }
+}
@@ -22,6 +22,7 @@ import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.errors.DataException;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -67,4 +68,29 @@ public class DecimalTypeParserTest {
     assertEquals(schemas.size(), typeConverter.schemaCache.size());
   }
 
+  @Test
+  public void scaleByIdentity() {
+    DecimalTypeParser parser = new DecimalTypeParser();
+    Schema first = Decimal.schema(2);
+    Schema second = Decimal.schema(2);
+    assertEquals(2, parser.scale(first));
+    assertEquals(2, parser.scale(second));
+    assertEquals(2, parser.scale(first));
+    assertEquals(2, parser.schemaCache.size());
+  }
+
+  @Test
+  public void parseFixedScale() {
+    DecimalTypeParser parser = new DecimalTypeParser();
+    assertEquals(new BigDecimal("1.500"), parser.parseString("1.5", Decimal.schema(3)));
+    assertEquals(new BigDecimal("-1.50"), parser.parseString("-1.50", Decimal.schema(2)));
+    assertEquals(new BigDecimal("120"), parser.parseString("120", Decimal.schema(0)));
+    assertEquals(
+        new BigDecimal("999999999999999999.00000"),
+        parser.parseString("999999999999999999", Decimal.schema(5))
+    );
+    assertEquals(new BigDecimal("1.20E+3"), parser.parseString("1.2e3", Decimal.schema(-1)));
+    assertThrows(ArithmeticException.class, () -> parser.parseString("1.234", Decimal.schema(2)));
+  }
+
 }
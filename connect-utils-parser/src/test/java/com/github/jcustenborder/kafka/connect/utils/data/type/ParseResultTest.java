@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data.type;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.jcustenborder.kafka.connect.utils.data.ParseResult;
+import com.github.jcustenborder.kafka.connect.utils.data.Parser;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParseResultTest {
+  Parser parser;
+
+  @BeforeEach
+  public void before() {
+    this.parser = new Parser();
+  }
+
+  @Test
+  public void success() {
+    ParseResult result = this.parser.tryParseString(Schema.INT32_SCHEMA, "1234");
+    assertTrue(result.isSuccess());
+    assertEquals(ParseResult.Code.SUCCESS, result.code());
+    assertEquals(1234, result.value());
+    assertNull(result.message());
+
+    result = this.parser.tryParseCharSequence(Schema.OPTIONAL_INT64_SCHEMA, null);
+    assertTrue(result.isSuccess());
+    assertNull(result.value());
+  }
+
+  @Test
+  public void invalidInput() {
+    final Schema[] schemas = new Schema[]{
+        Schema.INT8_SCHEMA,
+        Schema.INT16_SCHEMA,
+        Schema.INT32_SCHEMA,
+        Schema.INT64_SCHEMA,
+        Schema.FLOAT32_SCHEMA,
+        Schema.FLOAT64_SCHEMA,
+        Decimal.schema(2)
+    };
+    for (Schema schema : schemas) {
+      ParseResult result = this.parser.tryParseString(schema, "asdf");
+      assertFalse(result.isSuccess());
+      assertEquals(ParseResult.Code.INVALID_INPUT, result.code());
+      assertEquals(-1, result.orElse(-1));
+      assertTrue(result.cause() instanceof NumberFormatException, schema.toString());
+      assertEquals(0, result.cause().getStackTrace().length, "stack trace should not be filled in.");
+      assertTrue(result.message().startsWith("Could not parse 'asdf'"));
+      assertThrows(DataException.class, result::value);
+    }
+  }
+
+  @Test
+  public void bytes() {
+    final byte[] buffer = "12x".getBytes(StandardCharsets.UTF_8);
+    ParseResult result = this.parser.tryParseBytes(Schema.INT32_SCHEMA, buffer, 0, 3, StandardCharsets.UTF_8);
+    assertEquals(ParseResult.Code.INVALID_INPUT, result.code());
+    assertTrue(result.message().contains("'12x'"));
+    result = this.parser.tryParseBytes(Schema.INT32_SCHEMA, buffer, 0, 2, StandardCharsets.UTF_8);
+    assertEquals(12, result.value());
+  }
+
+  @Test
+  public void nullNotAllowed() {
+    ParseResult result = this.parser.tryParseString(Schema.INT32_SCHEMA, null);
+    assertEquals(ParseResult.Code.NULL_NOT_ALLOWED, result.code());
+    assertThrows(NullPointerException.class, result::value);
+  }
+
+  @Test
+  public void unsupportedSchema() {
+    ParseResult result = this.parser.tryParseString(Schema.BYTES_SCHEMA, "asdf");
+    assertEquals(ParseResult.Code.UNSUPPORTED_SCHEMA, result.code());
+    assertThrows(UnsupportedOperationException.class, result::value);
+  }
+
+  @Test
+  public void jsonNode() throws Exception {
+    final ObjectMapper objectMapper = new ObjectMapper();
+    ParseResult result = this.parser.tryParseJsonNode(Schema.INT32_SCHEMA, objectMapper.readTree("\"asdf\""));
+    assertEquals(ParseResult.Code.INVALID_INPUT, result.code());
+    result = this.parser.tryParseJsonNode(Schema.INT32_SCHEMA, objectMapper.readTree("12"));
+    assertEquals(12, result.value());
+
+    final Schema schema = SchemaBuilder.struct()
+        .field("a", Schema.INT32_SCHEMA)
+        .build();
+    result = this.parser.tryParseJsonNode(schema, objectMapper.readTree("{\"a\": \"b\"}"));
+    assertEquals(ParseResult.Code.INVALID_INPUT, result.code());
+    assertTrue(result.cause() instanceof DataException);
+  }
+}
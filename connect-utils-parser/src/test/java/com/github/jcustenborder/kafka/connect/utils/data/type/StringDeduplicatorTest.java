@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data.type;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.jcustenborder.kafka.connect.utils.data.ParsedColumn;
+import com.github.jcustenborder.kafka.connect.utils.data.Parser;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StringDeduplicatorTest {
+  Parser parser;
+
+  @BeforeEach
+  public void before() {
+    this.parser = new Parser();
+  }
+
+  @Test
+  public void deduplicate() {
+    StringDeduplicator deduplicator = new StringDeduplicator(16);
+    final String first = new String("US");
+    final String second = new String("US");
+    assertSame(first, deduplicator.deduplicate(first));
+    assertSame(first, deduplicator.deduplicate(second));
+    assertSame(first, deduplicator.deduplicate(new StringBuilder("US")));
+    assertEquals("CA", deduplicator.deduplicate(new StringBuilder("CA")));
+  }
+
+  @Test
+  public void longValuesAreNotCached() {
+    StringDeduplicator deduplicator = new StringDeduplicator(16);
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i <= StringDeduplicator.MAX_LENGTH; i++) {
+      builder.append('a');
+    }
+    final String first = builder.toString();
+    final String second = builder.toString();
+    assertSame(first, deduplicator.deduplicate(first));
+    assertSame(second, deduplicator.deduplicate(second));
+  }
+
+  @Test
+  public void invalidSize() {
+    assertThrows(IllegalArgumentException.class, () -> new StringDeduplicator(0));
+  }
+
+  @Test
+  public void parser() {
+    final Schema statusSchema = SchemaBuilder.string().optional().build();
+    final Schema schema = SchemaBuilder.struct()
+        .field("status", statusSchema)
+        .field("name", Schema.OPTIONAL_STRING_SCHEMA)
+        .build();
+    this.parser.deduplicateStrings(schema.field("status").schema(), 64);
+
+    assertSame(
+        this.parser.parseString(statusSchema, new String("ACTIVE")),
+        this.parser.parseString(statusSchema, new String("ACTIVE"))
+    );
+    final byte[] buffer = "ACTIVE".getBytes(StandardCharsets.UTF_8);
+    assertSame(
+        this.parser.parseString(statusSchema, "ACTIVE"),
+        this.parser.parseBytes(statusSchema, buffer, 0, buffer.length, StandardCharsets.UTF_8)
+    );
+    assertNotSame(
+        this.parser.parseString(Schema.OPTIONAL_STRING_SCHEMA, new String("ACTIVE")),
+        this.parser.parseString(Schema.OPTIONAL_STRING_SCHEMA, new String("ACTIVE"))
+    );
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final ObjectNode first = objectMapper.createObjectNode().put("status", "ACTIVE").put("name", "first");
+    final ObjectNode second = objectMapper.createObjectNode().put("status", "ACTIVE").put("name", "second");
+    final Struct firstStruct = (Struct) this.parser.parseJsonNode(schema, first);
+    final Struct secondStruct = (Struct) this.parser.parseJsonNode(schema, second);
+    assertSame(firstStruct.getString("status"), secondStruct.getString("status"));
+
+    final ParsedColumn column = this.parser.parseColumn(statusSchema, new String[]{new String("ACTIVE"), new String("ACTIVE")});
+    assertSame(column.get(0), column.get(1));
+  }
+
+  @Test
+  public void parserRequiresStringSchema() {
+    assertThrows(IllegalArgumentException.class, () -> this.parser.deduplicateStrings(Schema.INT32_SCHEMA, 10));
+  }
+
+  @Test
+  public void parserRejectsSharedStringSchemas() {
+    assertThrows(IllegalArgumentException.class, () -> this.parser.deduplicateStrings(Schema.STRING_SCHEMA, 10));
+    assertThrows(IllegalArgumentException.class, () -> this.parser.deduplicateStrings(Schema.OPTIONAL_STRING_SCHEMA, 10));
+    assertNotSame(
+        this.parser.parseString(Schema.STRING_SCHEMA, new String("ACTIVE")),
+        this.parser.parseString(Schema.STRING_SCHEMA, new String("ACTIVE"))
+    );
+  }
+}
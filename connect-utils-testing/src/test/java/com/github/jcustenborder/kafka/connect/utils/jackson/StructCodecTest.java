@@ -0,0 +1,155 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.jackson;
+
+import com.github.jcustenborder.kafka.connect.utils.AssertStruct;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StructCodecTest {
+  static final Schema INNER_SCHEMA = SchemaBuilder.struct()
+      .name("InnerSchema")
+      .optional()
+      .field("latitude", Schema.FLOAT32_SCHEMA)
+      .field("longitude", Schema.FLOAT32_SCHEMA)
+      .build();
+  static final Schema SCHEMA = SchemaBuilder.struct()
+      .name("Testing")
+      .field("firstName", Schema.STRING_SCHEMA)
+      .field("lastName", Schema.OPTIONAL_STRING_SCHEMA)
+      .field("int8", Schema.INT8_SCHEMA)
+      .field("int16", Schema.INT16_SCHEMA)
+      .field("int32", Schema.INT32_SCHEMA)
+      .field("int64", Schema.INT64_SCHEMA)
+      .field("float64", Schema.FLOAT64_SCHEMA)
+      .field("boolean", Schema.BOOLEAN_SCHEMA)
+      .field("bytes", Schema.BYTES_SCHEMA)
+      .field("decimal", Decimal.schema(2))
+      .field("date", Date.SCHEMA)
+      .field("time", Time.SCHEMA)
+      .field("timestamp", Timestamp.SCHEMA)
+      .field("inner", INNER_SCHEMA)
+      .field("cities", SchemaBuilder.map(Schema.STRING_SCHEMA, INNER_SCHEMA).build())
+      .field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+      .build();
+
+  static Struct struct(int i) {
+    final Struct inner = new Struct(INNER_SCHEMA).put("latitude", 30.2672F).put("longitude", 97.7431F);
+    return new Struct(SCHEMA)
+        .put("firstName", "Example" + i)
+        .put("int8", (byte) 1)
+        .put("int16", (short) 2)
+        .put("int32", i)
+        .put("int64", 1234567890123L + i)
+        .put("float64", 3.14D)
+        .put("boolean", true)
+        .put("bytes", new byte[]{1, 2, 3})
+        .put("decimal", new BigDecimal("123.45"))
+        .put("date", new java.util.Date(86400000L * 17000))
+        .put("time", new java.util.Date(3600000L))
+        .put("timestamp", new java.util.Date(1500000000000L))
+        .put("inner", 0 == i % 2 ? inner : null)
+        .put("cities", ImmutableMap.of("Austin", inner))
+        .put("tags", ImmutableList.of("a", "b"));
+  }
+
+  @Test
+  public void roundtrip() throws IOException {
+    final StructCodec codec = new StructCodec();
+    final List<Struct> expected = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      expected.add(struct(i));
+    }
+    final List<Struct> actual = codec.decode(codec.encode(expected));
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      AssertStruct.assertStruct(expected.get(i), actual.get(i));
+      assertSame(actual.get(0).schema(), actual.get(i).schema());
+    }
+  }
+
+  @Test
+  public void byteBuffer() throws IOException {
+    final StructCodec codec = new StructCodec();
+    final Struct input = struct(1).put("bytes", ByteBuffer.wrap(new byte[]{4, 5, 6}));
+    final Struct actual = codec.decode(codec.encode(ImmutableList.of(input))).get(0);
+    assertArrayEquals(new byte[]{4, 5, 6}, (byte[]) actual.get("bytes"));
+  }
+
+  @Test
+  public void schemaWrittenOnce() throws IOException {
+    final StructCodec codec = new StructCodec();
+    final List<Struct> structs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      structs.add(struct(i));
+    }
+    final byte[] encoded = codec.encode(structs);
+    final byte[] json = ObjectMapperFactory.INSTANCE.writeValueAsBytes(structs);
+    assertTrue(
+        encoded.length * 4 < json.length,
+        String.format("encoded %s bytes should be much smaller than %s bytes.", encoded.length, json.length)
+    );
+  }
+
+  @Test
+  public void equalSchemasShareId() throws IOException {
+    final StructCodec codec = new StructCodec();
+    final Schema copy = SchemaBuilder.struct().name("Copy").field("value", Schema.STRING_SCHEMA).build();
+    final Schema other = SchemaBuilder.struct().name("Copy").field("value", Schema.STRING_SCHEMA).build();
+    final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (StructCodec.Encoder encoder = codec.encoder(outputStream)) {
+      assertEquals(0, encoder.schemaId(copy));
+      assertEquals(0, encoder.schemaId(other));
+      assertEquals(1, encoder.schemaId(SCHEMA));
+    }
+  }
+
+  @Test
+  public void schemasSharedAcrossStreams() throws IOException {
+    final StructCodec codec = new StructCodec();
+    final byte[] encoded = codec.encode(ImmutableList.of(struct(1)));
+    assertSame(codec.decode(encoded).get(0).schema(), codec.decode(encoded).get(0).schema());
+  }
+
+  @Test
+  public void undefinedSchema() {
+    final StructCodec codec = new StructCodec();
+    final byte[] encoded = "[1,0,\"foo\"]".getBytes();
+    assertThrows(DataException.class, () -> codec.decode(encoded));
+  }
+}
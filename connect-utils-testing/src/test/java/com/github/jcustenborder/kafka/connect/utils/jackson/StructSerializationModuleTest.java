@@ -15,28 +15,40 @@
  */
 package com.github.jcustenborder.kafka.connect.utils.jackson;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.jcustenborder.kafka.connect.utils.AssertStruct;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.PatternFilenameFilter;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Timestamp;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 
 import static com.github.jcustenborder.kafka.connect.utils.AssertStruct.assertStruct;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 public class StructSerializationModuleTest {
@@ -109,5 +121,57 @@ public class StructSerializationModuleTest {
     }));
   }
 
+  @Test
+  public void compatibleWithStorage() throws IOException {
+    final Schema innerSchema = SchemaBuilder.struct()
+        .name("InnerSchema")
+        .optional()
+        .field("latitude", Schema.FLOAT32_SCHEMA)
+        .build();
+    final Schema schema = SchemaBuilder.struct()
+        .name("Compatible")
+        .field("firstName", Schema.STRING_SCHEMA)
+        .field("lastName", Schema.OPTIONAL_STRING_SCHEMA)
+        .field("inner", innerSchema)
+        .field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+        .field("timestamp", Timestamp.SCHEMA)
+        .build();
+    final Struct struct = new Struct(schema)
+        .put("firstName", "Example")
+        .put("inner", new Struct(innerSchema).put("latitude", 30.2672F))
+        .put("tags", ImmutableList.of("a", "b"))
+        .put("timestamp", new Date(1500000000000L));
+
+    final StructSerializationModule.Storage storage = new StructSerializationModule.Storage();
+    storage.schema = schema;
+    storage.fieldValues = new ArrayList<>();
+    for (Field field : schema.fields()) {
+      final KeyValue keyValue = new KeyValue();
+      keyValue.name = field.name();
+      keyValue.schema = field.schema();
+      keyValue.value(struct.get(field));
+      storage.fieldValues.add(keyValue);
+    }
+
+    assertEquals(
+        ObjectMapperFactory.INSTANCE.writeValueAsString(storage),
+        ObjectMapperFactory.INSTANCE.writeValueAsString(struct)
+    );
+  }
 
+  @Test
+  public void validate() {
+    final Schema schema = SchemaBuilder.struct()
+        .name("Invalid")
+        .field("firstName", Schema.STRING_SCHEMA)
+        .build();
+    final Struct struct = new Struct(schema);
+    assertThrows(JsonMappingException.class, () -> ObjectMapperFactory.INSTANCE.writeValueAsString(struct));
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    objectMapper.registerModule(new SchemaSerializationModule());
+    objectMapper.registerModule(new StructSerializationModule(false));
+    assertDoesNotThrow(() -> objectMapper.writeValueAsString(struct));
+  }
 }
@@ -17,14 +17,67 @@ package com.github.jcustenborder.kafka.connect.utils.data;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
+import org.apache.kafka.connect.data.ConnectSchema;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 
 public class SchemaBuilders {
+  static final int DERIVED_CACHE_SIZE = 1024;
+  static final int DERIVED_PER_SCHEMA = 16;
+  static final SchemaIdentityCache<DerivedSchemas> DERIVED =
+      new SchemaIdentityCache<>(DERIVED_CACHE_SIZE);
+
+  static final class Derived {
+    final Set<String> exclude;
+    final Schema schema;
+
+    Derived(Set<String> exclude, Schema schema) {
+      this.exclude = exclude;
+      this.schema = schema;
+    }
+
+    boolean matches(Collection<String> excludeFields) {
+      return this.exclude.containsAll(excludeFields) && excludeFields.containsAll(this.exclude);
+    }
+  }
+
+  /**
+   * Schemas derived from one source schema. Holds the most recently derived
+   * {@link #DERIVED_PER_SCHEMA} exclusion sets. Lookups compare against the collection passed by
+   * the caller so a hit does not copy it.
+   */
+  static final class DerivedSchemas {
+    volatile Derived[] entries = new Derived[0];
+
+    Schema get(Collection<String> excludeFields) {
+      for (Derived derived : this.entries) {
+        if (derived.matches(excludeFields)) {
+          return derived.schema;
+        }
+      }
+      return null;
+    }
+
+    synchronized Schema put(Set<String> exclude, Schema schema) {
+      final Derived[] current = this.entries;
+      for (Derived derived : current) {
+        if (derived.exclude.equals(exclude)) {
+          return derived.schema;
+        }
+      }
+      final int keep = Math.min(current.length, DERIVED_PER_SCHEMA - 1);
+      final Derived[] updated = new Derived[keep + 1];
+      updated[0] = new Derived(exclude, schema);
+      System.arraycopy(current, 0, updated, 1, keep);
+      this.entries = updated;
+      return schema;
+    }
+  }
 
   public static SchemaBuilder of(Schema schema, String... excludeFields) {
     return of(schema, Arrays.asList(excludeFields));
@@ -67,4 +120,43 @@ public class SchemaBuilders {
 
     return builder;
   }
+
+  /**
+   * Method is used to build a copy of a schema without the excluded fields. Unlike
+   * {@link #of(Schema, Collection)} the result is cached by source schema instance and exclusion set,
+   * so deriving the same schema again returns the same immutable instance. This keeps identity
+   * based caches downstream effective.
+   *
+   * @param schema        source schema.
+   * @param excludeFields fields to exclude.
+   * @return schema built from {@link #of(Schema, Collection)}.
+   */
+  public static Schema derive(Schema schema, String... excludeFields) {
+    return derive(schema, Arrays.asList(excludeFields));
+  }
+
+  /**
+   * Method is used to build a copy of a schema without the excluded fields. Unlike
+   * {@link #of(Schema, Collection)} the result is cached by source schema instance and exclusion set,
+   * so deriving the same schema again returns the same immutable instance. This keeps identity
+   * based caches downstream effective. A source that is not a built schema, for example a
+   * {@link SchemaBuilder}, can still change so its result is not cached.
+   *
+   * @param schema        source schema.
+   * @param excludeFields fields to exclude.
+   * @return schema built from {@link #of(Schema, Collection)}.
+   */
+  public static Schema derive(Schema schema, Collection<String> excludeFields) {
+    if (!(schema instanceof ConnectSchema)) {
+      return of(schema, excludeFields).build();
+    }
+    final Collection<String> lookup = null != excludeFields ? excludeFields : Collections.emptySet();
+    final DerivedSchemas derived = DERIVED.get(schema, s -> new DerivedSchemas());
+    final Schema result = derived.get(lookup);
+    if (null != result) {
+      return result;
+    }
+    final Set<String> exclude = ImmutableSet.copyOf(lookup);
+    return derived.put(exclude, of(schema, exclude).build());
+  }
 }
@@ -0,0 +1,211 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data;
+
+import com.google.common.base.Preconditions;
+import org.apache.kafka.connect.data.ConnectSchema;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stable 64 bit fingerprint of the structure of a schema. Unlike {@link SchemaKey} the fingerprint
+ * covers the fields of structs and the key and value schemas of maps and arrays, so two unnamed
+ * struct schemas with different fields have different fingerprints. The fingerprint only depends
+ * on the content of the schema so it is the same across JVMs.
+ *
+ * The fingerprint of a built schema is computed once and cached by schema instance. Schemas that are
+ * still mutable, for example a {@link org.apache.kafka.connect.data.SchemaBuilder}, are computed on
+ * every call.
+ */
+public final class SchemaFingerprint {
+  static final int CACHE_SIZE = 4096;
+  static final SchemaIdentityCache<Long> CACHE = new SchemaIdentityCache<>(CACHE_SIZE);
+
+  static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+  static final long PRIME = 0x100000001b3L;
+  static final long NULL = 0x9e3779b97f4a7c15L;
+
+  private SchemaFingerprint() {
+
+  }
+
+  /**
+   * Method is used to return the fingerprint of a schema.
+   *
+   * @param schema schema to fingerprint.
+   * @return 64 bit fingerprint of the schema.
+   */
+  public static long of(Schema schema) {
+    Preconditions.checkNotNull(schema, "schema cannot be null.");
+    if (schema instanceof ConnectSchema) {
+      return CACHE.get(schema, SchemaFingerprint::compute);
+    }
+    return compute(schema);
+  }
+
+  static long compute(Schema schema) {
+    long hash = OFFSET_BASIS;
+    hash = update(hash, schema.type().name());
+    hash = update(hash, schema.isOptional() ? 1L : 0L);
+    hash = update(hash, schema.name());
+    hash = update(hash, null == schema.version() ? NULL : schema.version());
+    hash = update(hash, schema.doc());
+    hash = updateValue(hash, schema, schema.defaultValue());
+
+    final Map<String, String> parameters = schema.parameters();
+    if (null == parameters) {
+      hash = update(hash, NULL);
+    } else {
+      hash = update(hash, parameters.size());
+      for (Map.Entry<String, String> kvp : new TreeMap<>(parameters).entrySet()) {
+        hash = update(hash, kvp.getKey());
+        hash = update(hash, kvp.getValue());
+      }
+    }
+
+    switch (schema.type()) {
+      case STRUCT:
+        hash = update(hash, schema.fields().size());
+        for (Field field : schema.fields()) {
+          hash = update(hash, field.name());
+          hash = update(hash, of(field.schema()));
+        }
+        break;
+      case MAP:
+        hash = update(hash, of(schema.keySchema()));
+        hash = update(hash, of(schema.valueSchema()));
+        break;
+      case ARRAY:
+        hash = update(hash, of(schema.valueSchema()));
+        break;
+      default:
+        break;
+    }
+
+    return finish(hash);
+  }
+
+  /**
+   * Method is used to hash a value by the type of its schema. Values are hashed by content so the
+   * result does not depend on toString() formatting or on the default timezone of the JVM.
+   */
+  static long updateValue(long hash, Schema schema, Object value) {
+    if (null == value) {
+      return update(hash, NULL);
+    }
+    switch (schema.type()) {
+      case INT8:
+      case INT16:
+      case INT32:
+      case INT64:
+        if (value instanceof java.util.Date) {
+          return update(hash, ((java.util.Date) value).getTime());
+        }
+        return update(hash, ((Number) value).longValue());
+      case FLOAT32:
+        return update(hash, Float.floatToIntBits((Float) value));
+      case FLOAT64:
+        return update(hash, Double.doubleToLongBits((Double) value));
+      case BOOLEAN:
+        return update(hash, (Boolean) value ? 1L : 0L);
+      case STRING:
+        return update(hash, (String) value);
+      case BYTES:
+        if (value instanceof BigDecimal) {
+          final BigDecimal decimal = (BigDecimal) value;
+          hash = update(hash, decimal.scale());
+          return update(hash, decimal.unscaledValue().toByteArray());
+        }
+        if (value instanceof ByteBuffer) {
+          final ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+          final byte[] bytes = new byte[buffer.remaining()];
+          buffer.get(bytes);
+          return update(hash, bytes);
+        }
+        return update(hash, (byte[]) value);
+      case ARRAY:
+        final List<?> list = (List<?>) value;
+        hash = update(hash, list.size());
+        for (Object item : list) {
+          hash = updateValue(hash, schema.valueSchema(), item);
+        }
+        return hash;
+      case MAP:
+        // Entries are combined independent of iteration order.
+        final Map<?, ?> map = (Map<?, ?>) value;
+        long entries = 0;
+        for (Map.Entry<?, ?> kvp : map.entrySet()) {
+          long entry = updateValue(OFFSET_BASIS, schema.keySchema(), kvp.getKey());
+          entry = updateValue(entry, schema.valueSchema(), kvp.getValue());
+          entries += finish(entry);
+        }
+        hash = update(hash, map.size());
+        return update(hash, entries);
+      case STRUCT:
+        final Struct struct = (Struct) value;
+        for (Field field : schema.fields()) {
+          hash = updateValue(hash, field.schema(), struct.get(field));
+        }
+        return hash;
+      default:
+        throw new DataException("Unsupported schema.type(): " + schema.type());
+    }
+  }
+
+  static long update(long hash, byte[] bytes) {
+    hash = update(hash, bytes.length);
+    for (byte b : bytes) {
+      hash = (hash ^ (b & 0xFF)) * PRIME;
+    }
+    return hash;
+  }
+
+  static long update(long hash, long value) {
+    for (int i = 0; i < 8; i++) {
+      hash = (hash ^ (value & 0xFF)) * PRIME;
+      value >>>= 8;
+    }
+    return hash;
+  }
+
+  static long update(long hash, String value) {
+    if (null == value) {
+      return update(hash, NULL);
+    }
+    return update(hash, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Spreads the bits of the FNV-1a hash so nested fingerprints mix well.
+   */
+  static long finish(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
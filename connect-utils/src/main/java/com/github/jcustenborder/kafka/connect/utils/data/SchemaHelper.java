@@ -16,15 +16,19 @@
 package com.github.jcustenborder.kafka.connect.utils.data;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import org.apache.kafka.connect.data.Decimal;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.data.Timestamp;
 
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class SchemaHelper {
@@ -45,10 +49,221 @@ public class SchemaHelper {
     PRIMITIVES = ImmutableMap.copyOf(primitives);
   }
 
+  /**
+   * Schemas returned by {@link #schema(Object)} for the primitive classes. Schemas are immutable
+   * once built so the same instance is returned for every call.
+   */
+  static final Map<Class<?>, Schema> PRIMITIVE_SCHEMAS;
+  static final Schema OPTIONAL_TIMESTAMP_SCHEMA = Timestamp.builder().optional().build();
+  /**
+   * Decimal schemas for the common scales. Other scales are built on each call.
+   */
+  static final Schema[] OPTIONAL_DECIMAL_SCHEMAS;
+
+  static {
+    Map<Class<?>, Schema> primitiveSchemas = new HashMap<>();
+    for (Map.Entry<Class<?>, Schema.Type> kvp : PRIMITIVES.entrySet()) {
+      primitiveSchemas.put(kvp.getKey(), SchemaBuilder.type(kvp.getValue()).optional().build());
+    }
+    PRIMITIVE_SCHEMAS = ImmutableMap.copyOf(primitiveSchemas);
+
+    OPTIONAL_DECIMAL_SCHEMAS = new Schema[39];
+    for (int scale = 0; scale < OPTIONAL_DECIMAL_SCHEMAS.length; scale++) {
+      OPTIONAL_DECIMAL_SCHEMAS[scale] = Decimal.builder(scale).optional().build();
+    }
+  }
+
+  /**
+   * Placeholder for the element schema of an empty list or map, or one that only contains nulls.
+   * It is unified with any other schema and replaced with {@link Schema#OPTIONAL_STRING_SCHEMA} in
+   * the result.
+   */
+  static final Schema UNKNOWN_SCHEMA = SchemaBuilder.string().optional().build();
+  static final int SHAPE_CACHE_SIZE = 1024;
+  /**
+   * Key of an array or map schema. The key and value schemas are compared by identity. Element
+   * schemas are shared instances as well so a value shape always resolves to the same schema
+   * instance. The key schema is null for arrays.
+   */
+  static final class ShapeKey {
+    final Schema keySchema;
+    final Schema valueSchema;
+    final int hashCode;
+
+    ShapeKey(Schema keySchema, Schema valueSchema) {
+      this.keySchema = keySchema;
+      this.valueSchema = valueSchema;
+      this.hashCode = 31 * System.identityHashCode(keySchema) + System.identityHashCode(valueSchema);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof ShapeKey)) {
+        return false;
+      }
+      final ShapeKey that = (ShapeKey) obj;
+      return this.keySchema == that.keySchema && this.valueSchema == that.valueSchema;
+    }
+  }
+
+  /**
+   * Array and map schemas by shape. The cache is bounded by size only, since each cached schema
+   * references the schemas in its key.
+   */
+  static final Cache<ShapeKey, Schema> SHAPE_SCHEMAS = CacheBuilder.newBuilder()
+      .maximumSize(SHAPE_CACHE_SIZE)
+      .build();
+
+  static Schema shapeSchema(Schema keySchema, Schema valueSchema) {
+    final ShapeKey key = new ShapeKey(keySchema, valueSchema);
+    Schema result = SHAPE_SCHEMAS.getIfPresent(key);
+    if (null == result) {
+      result = null == keySchema ?
+          SchemaBuilder.array(valueSchema).optional().build() :
+          SchemaBuilder.map(keySchema, valueSchema).optional().build();
+      final Schema existing = SHAPE_SCHEMAS.asMap().putIfAbsent(key, result);
+      if (null != existing) {
+        result = existing;
+      }
+    }
+    return result;
+  }
+
+  static Schema arraySchema(Schema valueSchema) {
+    return shapeSchema(null, valueSchema);
+  }
+
+  static Schema mapSchema(Schema keySchema, Schema valueSchema) {
+    Preconditions.checkNotNull(keySchema, "keySchema cannot be null.");
+    return shapeSchema(keySchema, valueSchema);
+  }
+
+  /**
+   * Method is used to determine the schema for a value. Schemas for primitive and logical types are
+   * shared so repeated calls do not build a new schema. Lists and maps are inferred recursively and
+   * values with the same shape return the same schema instance.
+   *
+   * @param input value to determine the schema for.
+   * @return optional schema for the value.
+   */
   public static Schema schema(Object input) {
+    Preconditions.checkNotNull(input, "input cannot be null.");
+    return resolve(infer(input));
+  }
+
+  static Schema infer(Object input) {
+    final Schema primitive = PRIMITIVE_SCHEMAS.get(input.getClass());
+    if (null != primitive) {
+      return primitive;
+    }
+    if (input instanceof Date) {
+      return OPTIONAL_TIMESTAMP_SCHEMA;
+    }
+    if (input instanceof BigDecimal) {
+      final int scale = ((BigDecimal) input).scale();
+      if (scale >= 0 && scale < OPTIONAL_DECIMAL_SCHEMAS.length) {
+        return OPTIONAL_DECIMAL_SCHEMAS[scale];
+      }
+    }
+    if (input instanceof Struct) {
+      return ((Struct) input).schema();
+    }
+    if (input instanceof List) {
+      Schema valueSchema = UNKNOWN_SCHEMA;
+      for (Object value : (List<?>) input) {
+        if (null != value) {
+          valueSchema = unify(valueSchema, infer(value));
+        }
+      }
+      return arraySchema(valueSchema);
+    }
+    if (input instanceof Map) {
+      Schema keySchema = UNKNOWN_SCHEMA;
+      Schema valueSchema = UNKNOWN_SCHEMA;
+      for (Map.Entry<?, ?> kvp : ((Map<?, ?>) input).entrySet()) {
+        if (null != kvp.getKey()) {
+          keySchema = unify(keySchema, infer(kvp.getKey()));
+        }
+        if (null != kvp.getValue()) {
+          valueSchema = unify(valueSchema, infer(kvp.getValue()));
+        }
+      }
+      return mapSchema(keySchema, valueSchema);
+    }
     return builder(input).build();
   }
 
+  /**
+   * Method is used to combine the schemas of two elements of the same list or map. Values are not
+   * converted, so only schemas every value already matches are combined. Unknown element schemas
+   * from empty or null only collections take the schema of the other side.
+   */
+  static Schema unify(Schema left, Schema right) {
+    if (left == right || UNKNOWN_SCHEMA == right) {
+      return left;
+    }
+    if (UNKNOWN_SCHEMA == left) {
+      return right;
+    }
+    if (left.type() == right.type()) {
+      switch (left.type()) {
+        case ARRAY:
+          return arraySchema(unify(left.valueSchema(), right.valueSchema()));
+        case MAP:
+          return mapSchema(
+              unify(left.keySchema(), right.keySchema()),
+              unify(left.valueSchema(), right.valueSchema())
+          );
+        default:
+          if (left.equals(right)) {
+            return left;
+          }
+          break;
+      }
+    }
+    throw new UnsupportedOperationException(
+        String.format(
+            "Cannot infer a single schema for elements of type %s and %s.",
+            describe(left),
+            describe(right)
+        )
+    );
+  }
+
+  private static String describe(Schema schema) {
+    return null == schema.name() ? schema.type().toString() : schema.type() + "(" + schema.name() + ")";
+  }
+
+  /**
+   * Method is used to replace unknown element schemas with {@link Schema#OPTIONAL_STRING_SCHEMA}.
+   */
+  static Schema resolve(Schema schema) {
+    if (UNKNOWN_SCHEMA == schema) {
+      return Schema.OPTIONAL_STRING_SCHEMA;
+    }
+    switch (schema.type()) {
+      case ARRAY: {
+        final Schema valueSchema = resolve(schema.valueSchema());
+        return valueSchema == schema.valueSchema() ? schema : arraySchema(valueSchema);
+      }
+      case MAP: {
+        final Schema keySchema = resolve(schema.keySchema());
+        final Schema valueSchema = resolve(schema.valueSchema());
+        if (keySchema == schema.keySchema() && valueSchema == schema.valueSchema()) {
+          return schema;
+        }
+        return mapSchema(keySchema, valueSchema);
+      }
+      default:
+        return schema;
+    }
+  }
+
   public static SchemaBuilder builder(Object input) {
     Preconditions.checkNotNull(input, "input cannot be null.");
     final SchemaBuilder builder;
@@ -60,6 +275,11 @@ public class SchemaHelper {
       builder = Timestamp.builder();
     } else if (input instanceof BigDecimal) {
       builder = Decimal.builder(((BigDecimal) input).scale());
+    } else if (input instanceof List) {
+      builder = SchemaBuilder.array(schema(input).valueSchema());
+    } else if (input instanceof Map) {
+      final Schema schema = schema(input);
+      builder = SchemaBuilder.map(schema.keySchema(), schema.valueSchema());
     } else {
       throw new UnsupportedOperationException(
           String.format("Unsupported Type: %s", input.getClass())
@@ -0,0 +1,112 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.data;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.kafka.connect.data.Schema;
+
+import java.util.function.Function;
+
+/**
+ * Bounded cache of values computed from a schema. Schemas are compared by identity so a lookup
+ * never walks the schema, and keys are weakly referenced so entries go away with their schema. The
+ * last schema that was looked up is checked before the cache since consecutive records usually
+ * share a schema.
+ *
+ * @param <V> type of value computed from the schema.
+ */
+public class SchemaIdentityCache<V> {
+  final Cache<Schema, V> cache;
+  volatile Entry<V> last;
+
+  static final class Entry<V> {
+    final Schema schema;
+    final V value;
+
+    Entry(Schema schema, V value) {
+      this.schema = schema;
+      this.value = value;
+    }
+  }
+
+  /**
+   * @param maximumSize maximum number of schemas to hold values for.
+   */
+  public SchemaIdentityCache(long maximumSize) {
+    Preconditions.checkArgument(maximumSize > 0, "maximumSize must be greater than zero.");
+    this.cache = CacheBuilder.newBuilder()
+        .weakKeys()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /**
+   * Method is used to return the value for a schema, computing it if it is not cached. Exceptions
+   * thrown by the loader are not cached and are passed to the caller.
+   *
+   * @param schema schema to return the value for.
+   * @param loader function used to compute the value. Must not return null.
+   * @return value for the schema.
+   */
+  public V get(Schema schema, Function<Schema, V> loader) {
+    Preconditions.checkNotNull(schema, "schema cannot be null.");
+    final Entry<V> last = this.last;
+    if (null != last && last.schema == schema) {
+      return last.value;
+    }
+    V value = this.cache.getIfPresent(schema);
+    if (null == value) {
+      value = loader.apply(schema);
+      Preconditions.checkNotNull(value, "loader returned null for schema %s", schema);
+      this.cache.put(schema, value);
+    }
+    this.last = new Entry<>(schema, value);
+    return value;
+  }
+
+  /**
+   * Method is used to return the value for a schema if it is cached.
+   *
+   * @param schema schema to return the value for.
+   * @return value for the schema or null.
+   */
+  public V getIfPresent(Schema schema) {
+    final Entry<V> last = this.last;
+    if (null != last && last.schema == schema) {
+      return last.value;
+    }
+    return this.cache.getIfPresent(schema);
+  }
+
+  /**
+   * Approximate number of schemas in the cache.
+   *
+   * @return number of cached schemas.
+   */
+  public long size() {
+    return this.cache.size();
+  }
+
+  /**
+   * Method is used to remove every entry from the cache.
+   */
+  public void clear() {
+    this.last = null;
+    this.cache.invalidateAll();
+  }
+}
@@ -17,20 +17,19 @@ package com.github.jcustenborder.kafka.connect.utils.data;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ComparisonChain;
 import org.apache.kafka.connect.data.Schema;
 
-import java.util.Objects;
-
 public class SchemaKey implements Comparable<SchemaKey> {
   public final String name;
   public final Integer version;
   public final Schema.Type type;
+  private final int hashCode;
 
   private SchemaKey(final Schema schema) {
     this.name = schema.name();
     this.version = schema.version();
     this.type = schema.type();
+    this.hashCode = hashCode(this.name, this.version, this.type);
   }
 
   public static SchemaKey of(final Schema schema) {
@@ -38,22 +37,68 @@ public class SchemaKey implements Comparable<SchemaKey> {
     return new SchemaKey(schema);
   }
 
+  /**
+   * Null names are treated as empty and null versions as 0 so the hash agrees with
+   * {@link #compareTo(SchemaKey)}.
+   */
+  static int hashCode(String name, Integer version, Schema.Type type) {
+    int result = 31 + (null == type ? 0 : type.ordinal());
+    result = 31 * result + (null == name ? 0 : name.hashCode());
+    result = 31 * result + (null == version ? 0 : version);
+    return result;
+  }
+
+  private static boolean nameEquals(String left, String right) {
+    if (null == left || left.isEmpty()) {
+      return null == right || right.isEmpty();
+    }
+    return left.equals(right);
+  }
+
+  private static boolean versionEquals(Integer left, Integer right) {
+    return (null == left ? 0 : left) == (null == right ? 0 : right);
+  }
+
+  /**
+   * Method is used to check if a schema has the same key without creating a SchemaKey for it.
+   *
+   * @param schema schema to check.
+   * @return true if the name, version and type of the schema match this key.
+   */
+  public boolean matches(Schema schema) {
+    return null != schema &&
+        this.type == schema.type() &&
+        nameEquals(this.name, schema.name()) &&
+        versionEquals(this.version, schema.version());
+  }
+
   @Override
   public int hashCode() {
-    return Objects.hash(this.name, this.type, this.version);
+    return this.hashCode;
   }
 
   @Override
   public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
     if (obj instanceof Schema) {
-      return equals(of((Schema) obj));
+      return matches((Schema) obj);
+    }
+    if (obj instanceof Lookup) {
+      final Lookup that = (Lookup) obj;
+      return this.hashCode == that.hashCode && matches(that.schema);
     }
 
     if (!(obj instanceof SchemaKey)) {
       return false;
     }
 
-    return 0 == compareTo((SchemaKey) obj);
+    final SchemaKey that = (SchemaKey) obj;
+    return this.hashCode == that.hashCode &&
+        this.type == that.type &&
+        nameEquals(this.name, that.name) &&
+        versionEquals(this.version, that.version);
   }
 
   @Override
@@ -68,10 +113,62 @@ public class SchemaKey implements Comparable<SchemaKey> {
 
   @Override
   public int compareTo(SchemaKey that) {
-    return ComparisonChain.start()
-        .compare(this.type, that.type)
-        .compare((null == this.name ? "" : this.name), (null == that.name ? "" : that.name))
-        .compare((null == this.version ? 0 : this.version), (null == that.version ? 0 : that.version))
-        .result();
+    int result = this.type.compareTo(that.type);
+    if (0 != result) {
+      return result;
+    }
+    result = (null == this.name ? "" : this.name).compareTo(null == that.name ? "" : that.name);
+    if (0 != result) {
+      return result;
+    }
+    return Integer.compare(
+        null == this.version ? 0 : this.version,
+        null == that.version ? 0 : that.version
+    );
+  }
+
+  /**
+   * Reusable probe used to look up a schema in a map keyed by {@link SchemaKey} without creating a
+   * key for each lookup. For example {@code map.get(lookup.set(schema))}. A lookup and a key are
+   * equal in both directions when the key matches the schema. An instance must not be shared
+   * between threads.
+   */
+  public static final class Lookup {
+    private Schema schema;
+    private int hashCode;
+
+    /**
+     * Method is used to point the lookup at a schema.
+     *
+     * @param schema schema to look up.
+     * @return this lookup.
+     */
+    public Lookup set(Schema schema) {
+      Preconditions.checkNotNull(schema, "schema cannot be null.");
+      this.schema = schema;
+      this.hashCode = SchemaKey.hashCode(schema.name(), schema.version(), schema.type());
+      return this;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj instanceof SchemaKey) {
+        final SchemaKey that = (SchemaKey) obj;
+        return this.hashCode == that.hashCode && that.matches(this.schema);
+      }
+      return false;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("schema", this.schema)
+          .toString();
+    }
   }
 }
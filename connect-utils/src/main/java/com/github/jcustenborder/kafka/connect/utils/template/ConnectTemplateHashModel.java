@@ -15,39 +15,230 @@
  */
 package com.github.jcustenborder.kafka.connect.utils.template;
 
+import freemarker.template.SimpleNumber;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateBooleanModel;
 import freemarker.template.TemplateHashModel;
 import freemarker.template.TemplateModel;
 import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateScalarModel;
 import freemarker.template.WrappingTemplateModel;
 import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.header.Headers;
 
+import java.util.Map;
+
+/**
+ * Hash model for a record. Names are resolved against the following layers in order, without
+ * copying any of them into a new map:
+ * <ol>
+ * <li>topic and partition of the record.</li>
+ * <li>fields of the struct.</li>
+ * <li>headers of the record. The last header with the name is used.</li>
+ * <li>additional values passed to execute.</li>
+ * </ol>
+ */
 class ConnectTemplateHashModel extends WrappingTemplateModel implements TemplateHashModel {
+  /**
+   * Wrapped partitions for the common partition numbers. These models are immutable so they are
+   * shared between renders.
+   */
+  static final TemplateModel[] PARTITIONS;
+  static final int SMALL_NUMBER_MIN = -128;
+  static final int SMALL_NUMBER_MAX = 1024;
+  static final TemplateModel[] SMALL_INTEGERS;
+  static final TemplateModel[] SMALL_LONGS;
+
+  static {
+    PARTITIONS = new TemplateModel[1024];
+    for (int i = 0; i < PARTITIONS.length; i++) {
+      PARTITIONS[i] = new SimpleNumber(Integer.valueOf(i));
+    }
+    SMALL_INTEGERS = new TemplateModel[SMALL_NUMBER_MAX - SMALL_NUMBER_MIN + 1];
+    SMALL_LONGS = new TemplateModel[SMALL_NUMBER_MAX - SMALL_NUMBER_MIN + 1];
+    for (int i = SMALL_NUMBER_MIN; i <= SMALL_NUMBER_MAX; i++) {
+      SMALL_INTEGERS[i - SMALL_NUMBER_MIN] = new SimpleNumber(Integer.valueOf(i));
+      SMALL_LONGS[i - SMALL_NUMBER_MIN] = new SimpleNumber(Long.valueOf(i));
+    }
+  }
+
+  static final class TopicModel {
+    final String topic;
+    final TemplateModel model;
+
+    TopicModel(String topic) {
+      this.topic = topic;
+      this.model = new SimpleScalar(topic);
+    }
+  }
+
+  /**
+   * Wrapped topic of the last record rendered by a template. Records in a batch are usually from
+   * the same topic. Each template has its own cache so templates do not replace each other's entry.
+   */
+  static final class TopicCache {
+    volatile TopicModel last;
+
+    TemplateModel get(String topic) {
+      TopicModel topicModel = this.last;
+      if (null == topicModel || !topicModel.topic.equals(topic)) {
+        topicModel = new TopicModel(topic);
+        this.last = topicModel;
+      }
+      return topicModel.model;
+    }
+  }
 
   final ConnectRecord connectRecord;
   final Struct struct;
+  final Map<String, ?> additionalValues;
+  TopicCache topics;
+  TemplateFields templateFields;
+  Field[] fields;
 
   ConnectTemplateHashModel(ConnectRecord connectRecord, Struct struct) {
+    this(connectRecord, struct, null);
+  }
+
+  ConnectTemplateHashModel(ConnectRecord connectRecord, Struct struct, Map<String, ?> additionalValues) {
     this.connectRecord = connectRecord;
     this.struct = struct;
+    this.additionalValues = additionalValues;
+  }
+
+  /**
+   * Method is used to bind the model to the template that renders it.
+   *
+   * @param topics         topic cache of the template.
+   * @param templateFields fields of the names referenced by the template. Can be null.
+   */
+  void bind(TopicCache topics, TemplateFields templateFields) {
+    this.topics = topics;
+    this.templateFields = templateFields;
+    this.fields = null != templateFields && null != this.struct ?
+        templateFields.fields(this.struct.schema()) : null;
+  }
+
+  TemplateModel topicModel(String topic) {
+    return null != this.topics ? this.topics.get(topic) : new SimpleScalar(topic);
+  }
+
+  static TemplateModel partitionModel(Integer partition) {
+    final int value = partition;
+    if (value >= 0 && value < PARTITIONS.length) {
+      return PARTITIONS[value];
+    }
+    return null;
+  }
+
+  /**
+   * Method is used to return a shared model for the common immutable scalars.
+   *
+   * @param value value to return the model for.
+   * @return shared model or null if the value has to be wrapped.
+   */
+  static TemplateModel sharedModel(Object value) {
+    if (value instanceof Boolean) {
+      return (Boolean) value ? TemplateBooleanModel.TRUE : TemplateBooleanModel.FALSE;
+    } else if (value instanceof Integer) {
+      final int i = (Integer) value;
+      if (i >= SMALL_NUMBER_MIN && i <= SMALL_NUMBER_MAX) {
+        return SMALL_INTEGERS[i - SMALL_NUMBER_MIN];
+      }
+    } else if (value instanceof Long) {
+      final long l = (Long) value;
+      if (l >= SMALL_NUMBER_MIN && l <= SMALL_NUMBER_MAX) {
+        return SMALL_LONGS[(int) l - SMALL_NUMBER_MIN];
+      }
+    } else if (value instanceof String && ((String) value).isEmpty()) {
+      return TemplateScalarModel.EMPTY_STRING;
+    }
+    return null;
+  }
+
+  /**
+   * Method is used to return the unwrapped value for a name.
+   *
+   * @param s name to look up.
+   * @return value or null if it does not exist.
+   */
+  Object value(String s) {
+    if ("topic".equals(s)) {
+      return null != this.connectRecord ? this.connectRecord.topic() : null;
+    } else if ("partition".equals(s)) {
+      return null != this.connectRecord ? this.connectRecord.kafkaPartition() : null;
+    }
+    return layeredValue(s);
+  }
+
+  private Field field(String s) {
+    if (null != this.fields) {
+      final int index = this.templateFields.index(s);
+      if (index >= 0) {
+        return this.fields[index];
+      }
+    }
+    return this.struct.schema().field(s);
+  }
+
+  /**
+   * Method is used to look up a name in the struct, headers and additional values.
+   */
+  private Object layeredValue(String s) {
+    if (null != this.struct) {
+      final Field field = field(s);
+      if (null != field) {
+        return this.struct.get(field);
+      }
+    }
+    final Headers headers = null != this.connectRecord ? this.connectRecord.headers() : null;
+    if (null != headers && !headers.isEmpty()) {
+      final Header header = headers.lastWithName(s);
+      if (null != header) {
+        return header.value();
+      }
+    }
+    if (null != this.additionalValues) {
+      return this.additionalValues.get(s);
+    }
+    return null;
   }
 
   @Override
   public TemplateModel get(String s) throws TemplateModelException {
-    Object value = null;
-
+    final Object value;
     if ("topic".equals(s)) {
-      value = this.connectRecord.topic();
+      final String topic = null != this.connectRecord ? this.connectRecord.topic() : null;
+      if (null == topic) {
+        return TemplateModel.NOTHING;
+      }
+      return topicModel(topic);
     } else if ("partition".equals(s)) {
-      value = this.connectRecord.kafkaPartition();
-    } else if (null != (this.struct.schema().field(s))) {
-      value = this.struct.get(s);
+      final Integer partition = null != this.connectRecord ? this.connectRecord.kafkaPartition() : null;
+      if (null == partition) {
+        return TemplateModel.NOTHING;
+      }
+      final TemplateModel model = partitionModel(partition);
+      if (null != model) {
+        return model;
+      }
+      value = partition;
+    } else {
+      value = layeredValue(s);
     }
 
     if (null == value) {
       return TemplateModel.NOTHING;
     }
 
+    final TemplateModel shared = sharedModel(value);
+    if (null != shared) {
+      return shared;
+    }
+
     return wrap(value);
   }
 
@@ -0,0 +1,179 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.template;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of rendered output for a template, keyed on the values of every variable the
+ * template references. The variable names are extracted from the template text when it is
+ * compiled. Every identifier in the template is treated as a reference, which may include local
+ * variables and built-in names. Extra names only make the key larger, never wrong.
+ */
+class ResultCache {
+  static final int MAXIMUM_NAMES = 32;
+  static final Pattern IDENTIFIER = Pattern.compile(
+      "(?:[\\p{L}_$@]|\\\\[-.:#])(?:[\\p{L}\\p{Nd}_$@]|\\\\[-.:#])*"
+  );
+  /**
+   * Syntax that can read variables that are not named in the template, or output that changes
+   * without the input changing. Templates containing any of these are not cached.
+   */
+  static final String[] UNCACHEABLE = {
+      ".vars", ".data_model", ".globals", ".main", ".namespace", ".locals", ".node", ".now",
+      "?eval", "?interpret", "?api", "?new", "include", "import", "visit", "recurse"
+  };
+
+  final String[] names;
+  final Cache<Key, String> cache;
+
+  private ResultCache(String[] names, long maximumSize) {
+    this.names = names;
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /**
+   * Method is used to create a cache for a template.
+   *
+   * @param template    template text.
+   * @param maximumSize maximum number of rendered results to keep.
+   * @return cache or null if the template cannot be cached.
+   */
+  static ResultCache of(String template, long maximumSize) {
+    for (String uncacheable : UNCACHEABLE) {
+      if (template.contains(uncacheable)) {
+        return null;
+      }
+    }
+    final Set<String> names = new LinkedHashSet<>();
+    final Matcher matcher = IDENTIFIER.matcher(template);
+    while (matcher.find()) {
+      names.add(matcher.group().replace("\\", ""));
+      if (names.size() > MAXIMUM_NAMES) {
+        return null;
+      }
+    }
+    return new ResultCache(names.toArray(new String[0]), maximumSize);
+  }
+
+  /**
+   * Values that are immutable and compared by value. Any other value is not used in a key because
+   * it could change after the output was cached.
+   */
+  static boolean isKeyValue(Object value) {
+    return null == value ||
+        value instanceof String ||
+        value instanceof Integer ||
+        value instanceof Long ||
+        value instanceof Boolean ||
+        value instanceof Short ||
+        value instanceof Byte ||
+        value instanceof Double ||
+        value instanceof Float ||
+        value instanceof BigDecimal;
+  }
+
+  /**
+   * Method is used to build the key for a data model.
+   *
+   * @param model data model passed to execute.
+   * @return key or null if a referenced value cannot be used in a key.
+   */
+  Key key(Object model) {
+    final Object[] values = new Object[this.names.length + 1];
+    if (model instanceof Struct) {
+      // Struct is wrapped as a bean so the template can reach its schema as well.
+      values[this.names.length] = new SchemaIdentity(((Struct) model).schema());
+    } else if (!(model instanceof Map) && !(model instanceof ConnectTemplateHashModel)) {
+      return null;
+    }
+    for (int i = 0; i < this.names.length; i++) {
+      final Object value = SimpleTemplate.value(model, this.names[i]);
+      if (!isKeyValue(value)) {
+        return null;
+      }
+      values[i] = value;
+    }
+    return new Key(values);
+  }
+
+  String get(Key key) {
+    return this.cache.getIfPresent(key);
+  }
+
+  void put(Key key, String output) {
+    this.cache.put(key, output);
+  }
+
+  /**
+   * Schema compared by identity. Hashing or comparing a ConnectSchema walks the whole schema, and
+   * that would happen on every render.
+   */
+  static final class SchemaIdentity {
+    final Schema schema;
+
+    SchemaIdentity(Schema schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(this.schema);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof SchemaIdentity && ((SchemaIdentity) obj).schema == this.schema;
+    }
+  }
+
+  static final class Key {
+    final Object[] values;
+    final int hashCode;
+
+    Key(Object[] values) {
+      this.values = values;
+      this.hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      final Key that = (Key) obj;
+      return this.hashCode == that.hashCode && Arrays.equals(this.values, that.values);
+    }
+  }
+}
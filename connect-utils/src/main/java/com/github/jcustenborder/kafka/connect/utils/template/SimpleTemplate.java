@@ -0,0 +1,161 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.template;
+
+import com.github.jcustenborder.kafka.connect.utils.data.SchemaIdentityCache;
+import org.apache.kafka.connect.data.ConnectSchema;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Template made of literal text and plain {@code ${name}} interpolations. These are rendered by
+ * appending the literal text and the referenced values without going through FreeMarker. Only
+ * string values are rendered this way since FreeMarker applies formatting to every other type. When
+ * a referenced value is missing or is not a string {@link #render(Object, StringBuilder)} returns
+ * false and the caller renders the template with FreeMarker.
+ */
+class SimpleTemplate {
+  static final Pattern INTERPOLATION = Pattern.compile("\\$\\{\\s*([A-Za-z_][A-Za-z0-9_]*)\\s*}");
+  /**
+   * Character sequences that start FreeMarker syntax other than a plain interpolation.
+   */
+  static final String[] DIRECTIVES = {"${", "#{", "<#", "</#", "<@", "</@", "[#", "[/#", "[@", "[/@", "[="};
+
+  static final int SCHEMA_CACHE_SIZE = 64;
+
+  final String[] literals;
+  final String[] names;
+  final int literalLength;
+  /**
+   * Fields for {@link #names} resolved once per struct schema. An element is null when the schema
+   * does not have the field.
+   */
+  final SchemaIdentityCache<Field[]> fields;
+  final Function<Schema, Field[]> resolver;
+
+  private SimpleTemplate(String[] literals, String[] names) {
+    this.literals = literals;
+    this.names = names;
+    this.fields = new SchemaIdentityCache<>(SCHEMA_CACHE_SIZE);
+    this.resolver = this::resolve;
+    int length = 0;
+    for (String literal : literals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  /**
+   * Method is used to compile a template if it only uses plain interpolations.
+   *
+   * @param template template text.
+   * @return compiled template or null if the template uses any other FreeMarker syntax.
+   */
+  static SimpleTemplate compile(String template) {
+    final List<String> literals = new ArrayList<>();
+    final List<String> names = new ArrayList<>();
+    final Matcher matcher = INTERPOLATION.matcher(template);
+    int start = 0;
+    while (matcher.find()) {
+      literals.add(template.substring(start, matcher.start()));
+      names.add(matcher.group(1));
+      start = matcher.end();
+    }
+    literals.add(template.substring(start));
+
+    for (String literal : literals) {
+      for (String directive : DIRECTIVES) {
+        if (literal.contains(directive)) {
+          return null;
+        }
+      }
+    }
+
+    return new SimpleTemplate(
+        literals.toArray(new String[0]),
+        names.toArray(new String[0])
+    );
+  }
+
+  Field[] resolve(Schema schema) {
+    final Field[] result = new Field[this.names.length];
+    for (int i = 0; i < this.names.length; i++) {
+      result[i] = schema.field(this.names[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Method is used to return the fields for the names of the template. Fields of a
+   * {@link org.apache.kafka.connect.data.SchemaBuilder} can still change so they are not cached.
+   */
+  Field[] fields(Schema schema) {
+    if (schema instanceof ConnectSchema) {
+      return this.fields.get(schema, this.resolver);
+    }
+    return resolve(schema);
+  }
+
+  static Object value(Object model, String name) {
+    if (model instanceof Struct) {
+      final Struct struct = (Struct) model;
+      final Field field = struct.schema().field(name);
+      return null == field ? null : struct.get(field);
+    } else if (model instanceof ConnectTemplateHashModel) {
+      return ((ConnectTemplateHashModel) model).value(name);
+    } else if (model instanceof Map) {
+      return ((Map<?, ?>) model).get(name);
+    }
+    return null;
+  }
+
+  /**
+   * Method is used to render the template.
+   *
+   * @param model  data model passed to execute.
+   * @param output buffer to append to.
+   * @return true if the template was rendered. false if it has to be rendered by FreeMarker. The
+   *     output may contain part of the template when false is returned.
+   */
+  boolean render(Object model, StringBuilder output) {
+    output.ensureCapacity(output.length() + this.literalLength);
+    final Struct struct = model instanceof Struct ? (Struct) model : null;
+    final Field[] fields = null != struct ? fields(struct.schema()) : null;
+    for (int i = 0; i < this.names.length; i++) {
+      final Object value;
+      if (null != struct) {
+        value = null == fields[i] ? null : struct.get(fields[i]);
+      } else {
+        value = value(model, this.names[i]);
+      }
+      if (!(value instanceof String)) {
+        return false;
+      }
+      output.append(this.literals[i]);
+      output.append((String) value);
+    }
+    output.append(this.literals[this.names.length]);
+    return true;
+  }
+}
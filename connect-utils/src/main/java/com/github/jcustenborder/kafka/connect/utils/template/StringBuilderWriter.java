@@ -0,0 +1,132 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.template;
+
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * Unsynchronized writer backed by a {@link StringBuilder}. Used as a reusable render buffer so the
+ * capacity of previous renders is kept instead of growing a new buffer for every record.
+ */
+class StringBuilderWriter extends Writer {
+  static final int MAXIMUM_RETAINED_CAPACITY = 64 * 1024;
+  static final int BYTE_BUFFER_SIZE = 8192;
+  static final int INITIAL_CHARS = 256;
+  StringBuilder builder;
+  boolean inUse;
+  private char[] chars;
+  private ByteBuffer bytes;
+
+  StringBuilderWriter(int capacity) {
+    this.builder = new StringBuilder(capacity);
+  }
+
+  /**
+   * Method is used to clear the buffer before it is reused. Buffers that grew past
+   * {@link #MAXIMUM_RETAINED_CAPACITY} are replaced so one large render does not pin memory.
+   */
+  void reset() {
+    if (this.builder.capacity() > MAXIMUM_RETAINED_CAPACITY) {
+      this.builder = new StringBuilder(MAXIMUM_RETAINED_CAPACITY);
+    } else {
+      this.builder.setLength(0);
+    }
+    if (null != this.chars && this.chars.length > MAXIMUM_RETAINED_CAPACITY) {
+      this.chars = null;
+    }
+  }
+
+  /**
+   * Method is used to return the buffered characters for encoding. The characters are copied into
+   * an array that is reused, which encodes faster than reading the builder one char at a time.
+   *
+   * @return buffer over the rendered characters.
+   */
+  CharBuffer chars() {
+    final int length = this.builder.length();
+    if (null == this.chars || this.chars.length < length) {
+      this.chars = new char[Math.max(length, INITIAL_CHARS)];
+    }
+    this.builder.getChars(0, length, this.chars, 0);
+    return CharBuffer.wrap(this.chars, 0, length);
+  }
+
+  /**
+   * @return reusable buffer used to encode output in chunks.
+   */
+  ByteBuffer bytes() {
+    if (null == this.bytes) {
+      this.bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+    }
+    this.bytes.clear();
+    return this.bytes;
+  }
+
+  @Override
+  public void write(int c) {
+    this.builder.append((char) c);
+  }
+
+  @Override
+  public void write(char[] buffer, int offset, int length) {
+    this.builder.append(buffer, offset, length);
+  }
+
+  @Override
+  public void write(String str) {
+    this.builder.append(str);
+  }
+
+  @Override
+  public void write(String str, int offset, int length) {
+    this.builder.append(str, offset, offset + length);
+  }
+
+  @Override
+  public Writer append(CharSequence csq) {
+    this.builder.append(csq);
+    return this;
+  }
+
+  @Override
+  public Writer append(CharSequence csq, int start, int end) {
+    this.builder.append(csq, start, end);
+    return this;
+  }
+
+  @Override
+  public Writer append(char c) {
+    this.builder.append(c);
+    return this;
+  }
+
+  @Override
+  public void flush() {
+
+  }
+
+  @Override
+  public void close() {
+
+  }
+
+  @Override
+  public String toString() {
+    return this.builder.toString();
+  }
+}
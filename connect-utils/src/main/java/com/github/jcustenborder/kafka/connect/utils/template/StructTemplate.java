@@ -17,6 +17,7 @@ package com.github.jcustenborder.kafka.connect.utils.template;
 
 import com.google.common.base.Preconditions;
 import freemarker.cache.StringTemplateLoader;
+import freemarker.cache.TemplateLoader;
 import freemarker.core.InvalidReferenceException;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
@@ -28,44 +29,214 @@ import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.errors.DataException;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Renders FreeMarker templates against structs, maps and records. Rendering is safe to call
+ * concurrently from multiple threads. Instances created by {@link StructTemplateBuilder} do not
+ * allow templates to be added after they are built, so a single instance can be shared by all tasks
+ * of a worker. Instances created with {@link #StructTemplate()} allow templates to be added at any
+ * time.
+ */
 public class StructTemplate {
+  static final int INITIAL_BUFFER_SIZE = 256;
   final Configuration configuration;
   final StringTemplateLoader loader;
+  final boolean immutable;
+  final long resultCacheSize;
+  final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+  /**
+   * Render buffer for each thread. The buffer keeps the capacity of previous renders so templates
+   * do not grow a new buffer for every record.
+   */
+  final ThreadLocal<StringBuilderWriter> buffers = ThreadLocal.withInitial(() -> new StringBuilderWriter(INITIAL_BUFFER_SIZE));
+
+  /**
+   * Template compiled by {@link #addTemplate(String, String)}.
+   */
+  static final class CompiledTemplate {
+    final Template template;
+    /**
+     * Set when the template only contains plain interpolations. null otherwise.
+     */
+    final SimpleTemplate simple;
+    /**
+     * Set when results are cached and the template can be cached. null otherwise.
+     */
+    final ResultCache resultCache;
+    /**
+     * Fields of the names referenced by the template. null when the template was not compiled by
+     * {@link #addTemplate(String, String)}.
+     */
+    final TemplateFields fields;
+    final ConnectTemplateHashModel.TopicCache topics = new ConnectTemplateHashModel.TopicCache();
+
+    CompiledTemplate(Template template, SimpleTemplate simple, ResultCache resultCache, TemplateFields fields) {
+      this.template = template;
+      this.simple = simple;
+      this.resultCache = resultCache;
+      this.fields = fields;
+    }
+  }
+
+  /**
+   * StringTemplateLoader is not thread safe. It is only read when a template includes or imports
+   * another template, and the result is cached by FreeMarker, so the lock is rarely taken.
+   */
+  static final class LockingTemplateLoader implements TemplateLoader {
+    final StringTemplateLoader loader;
+
+    LockingTemplateLoader(StringTemplateLoader loader) {
+      this.loader = loader;
+    }
+
+    @Override
+    public Object findTemplateSource(String name) throws IOException {
+      synchronized (this.loader) {
+        return this.loader.findTemplateSource(name);
+      }
+    }
+
+    @Override
+    public long getLastModified(Object templateSource) {
+      synchronized (this.loader) {
+        return this.loader.getLastModified(templateSource);
+      }
+    }
+
+    @Override
+    public Reader getReader(Object templateSource, String encoding) throws IOException {
+      synchronized (this.loader) {
+        return this.loader.getReader(templateSource, encoding);
+      }
+    }
+
+    @Override
+    public void closeTemplateSource(Object templateSource) throws IOException {
+      synchronized (this.loader) {
+        this.loader.closeTemplateSource(templateSource);
+      }
+    }
+  }
 
   public StructTemplate() {
+    this(null, 0L);
+  }
+
+  /**
+   * @param templates       templates to add. When not null the instance does not allow any other
+   *                        templates to be added.
+   * @param resultCacheSize number of rendered results to cache per template. 0 disables caching.
+   */
+  StructTemplate(Map<String, String> templates, long resultCacheSize) {
+    this.resultCacheSize = resultCacheSize;
     this.configuration = new Configuration(Configuration.getVersion());
     this.loader = new StringTemplateLoader();
-    this.configuration.setTemplateLoader(this.loader);
+    this.configuration.setTemplateLoader(new LockingTemplateLoader(this.loader));
     this.configuration.setDefaultEncoding("UTF-8");
     this.configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
     this.configuration.setLogTemplateExceptions(false);
     this.configuration.setObjectWrapper(new ConnectObjectWrapper());
+    // Templates only change through addTemplate, which removes them from the cache.
+    this.configuration.setTemplateUpdateDelayMilliseconds(Long.MAX_VALUE);
+
+    if (null != templates) {
+      for (Map.Entry<String, String> kvp : templates.entrySet()) {
+        putTemplate(kvp.getKey(), kvp.getValue());
+      }
+    }
+    this.immutable = null != templates;
   }
 
+  /**
+   * Method is used to add a template. The template is compiled once here and the compiled template
+   * is used by every execute call.
+   *
+   * @param templateName name of the template.
+   * @param template     template text.
+   * @throws DataException         if the template cannot be parsed.
+   * @throws IllegalStateException if the instance was created by {@link StructTemplateBuilder}.
+   */
   public void addTemplate(String templateName, String template) {
-    this.loader.putTemplate(templateName, template);
+    Preconditions.checkState(
+        !this.immutable,
+        "Templates cannot be added to a StructTemplate created by StructTemplateBuilder."
+    );
+    putTemplate(templateName, template);
   }
 
-  private String executeInternal(String templateName, Object value) {
+  private void putTemplate(String templateName, String template) {
     Preconditions.checkNotNull(templateName, "templateName cannot be null.");
-    Preconditions.checkNotNull(value, "values cannot be null.");
-    Template template;
+    Preconditions.checkNotNull(template, "template cannot be null.");
+    final Template compiled;
+    try {
+      compiled = new Template(templateName, template, this.configuration);
+    } catch (IOException ex) {
+      // Nothing may serve the invalid text, including templates that include or import it.
+      synchronized (this.loader) {
+        this.loader.removeTemplate(templateName);
+      }
+      this.templates.remove(templateName);
+      removeTemplateFromCache(templateName);
+      throw new DataException(
+          String.format("Exception thrown while loading template '%s'", templateName),
+          ex
+      );
+    }
+    synchronized (this.loader) {
+      this.loader.putTemplate(templateName, template);
+    }
+    // Templates that include or import this one load it through the FreeMarker cache, which is
+    // never refreshed on its own.
+    removeTemplateFromCache(templateName);
+    final ResultCache resultCache = this.resultCacheSize > 0 ? ResultCache.of(template, this.resultCacheSize) : null;
+    this.templates.put(
+        templateName,
+        new CompiledTemplate(compiled, SimpleTemplate.compile(template), resultCache, TemplateFields.of(template))
+    );
+  }
 
+  private void removeTemplateFromCache(String templateName) {
     try {
-      template = this.configuration.getTemplate(templateName);
+      this.configuration.removeTemplateFromCache(templateName);
+    } catch (IOException ex) {
+      throw new DataException(
+          String.format("Exception thrown while removing template '%s' from the cache", templateName),
+          ex
+      );
+    }
+  }
+
+  private CompiledTemplate template(String templateName) {
+    final CompiledTemplate template = this.templates.get(templateName);
+    if (null != template) {
+      return template;
+    }
+
+    try {
+      return new CompiledTemplate(this.configuration.getTemplate(templateName), null, null, null);
     } catch (IOException ex) {
       throw new DataException(
           String.format("Exception thrown while loading template '%s'", templateName),
           ex
       );
     }
+  }
 
-    try (StringWriter writer = new StringWriter()) {
+  private void process(Template template, Object value, Writer writer) {
+    try {
       template.process(value, writer);
-      return writer.toString();
     } catch (IOException e) {
       throw new ConnectException("Exception while processing template", e);
     } catch (InvalidReferenceException e) {
@@ -80,6 +251,140 @@ public class StructTemplate {
     }
   }
 
+  private StringBuilderWriter acquireBuffer() {
+    StringBuilderWriter writer = this.buffers.get();
+    if (writer.inUse) {
+      // A template is being rendered by this thread already.
+      writer = new StringBuilderWriter(INITIAL_BUFFER_SIZE);
+    }
+    writer.inUse = true;
+    return writer;
+  }
+
+  private static void releaseBuffer(StringBuilderWriter writer) {
+    writer.reset();
+    writer.inUse = false;
+  }
+
+  private CompiledTemplate template(String templateName, Object value) {
+    Preconditions.checkNotNull(templateName, "templateName cannot be null.");
+    Preconditions.checkNotNull(value, "values cannot be null.");
+    final CompiledTemplate template = template(templateName);
+    if (value instanceof ConnectTemplateHashModel) {
+      ((ConnectTemplateHashModel) value).bind(template.topics, template.fields);
+    }
+    return template;
+  }
+
+  /**
+   * Method is used to render a template into an acquired buffer.
+   */
+  private void render(CompiledTemplate template, Object value, StringBuilderWriter writer) {
+    if (null != template.simple && template.simple.render(value, writer.builder)) {
+      return;
+    }
+    writer.reset();
+    process(template.template, value, writer);
+  }
+
+  private String executeInternal(String templateName, Object value) {
+    final CompiledTemplate template = template(templateName, value);
+    final ResultCache.Key key = null != template.resultCache ? template.resultCache.key(value) : null;
+    if (null != key) {
+      final String cached = template.resultCache.get(key);
+      if (null != cached) {
+        return cached;
+      }
+    }
+    final StringBuilderWriter writer = acquireBuffer();
+    try {
+      render(template, value, writer);
+      final String result = writer.toString();
+      if (null != key) {
+        template.resultCache.put(key, result);
+      }
+      return result;
+    } finally {
+      releaseBuffer(writer);
+    }
+  }
+
+  private void executeInternal(String templateName, Object value, Writer output) {
+    Preconditions.checkNotNull(output, "writer cannot be null.");
+    final CompiledTemplate template = template(templateName, value);
+    if (null == template.simple) {
+      process(template.template, value, output);
+      return;
+    }
+    final StringBuilderWriter writer = acquireBuffer();
+    try {
+      render(template, value, writer);
+      output.append(writer.builder);
+    } catch (IOException e) {
+      throw new ConnectException("Exception while writing template output", e);
+    } finally {
+      releaseBuffer(writer);
+    }
+  }
+
+  static CharsetEncoder encoder(Charset charset) {
+    // Same replacement behavior as String.getBytes(Charset).
+    return charset.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  private void executeInternal(String templateName, Object value, OutputStream output, Charset charset) {
+    Preconditions.checkNotNull(output, "outputStream cannot be null.");
+    Preconditions.checkNotNull(charset, "charset cannot be null.");
+    final CompiledTemplate template = template(templateName, value);
+    final StringBuilderWriter writer = acquireBuffer();
+    try {
+      render(template, value, writer);
+      final CharsetEncoder encoder = encoder(charset);
+      final CharBuffer input = writer.chars();
+      final ByteBuffer buffer = writer.bytes();
+      CoderResult result;
+      do {
+        result = encoder.encode(input, buffer, true);
+        output.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+      } while (result.isOverflow());
+      do {
+        result = encoder.flush(buffer);
+        output.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+      } while (result.isOverflow());
+    } catch (IOException e) {
+      throw new ConnectException("Exception while writing template output", e);
+    } finally {
+      releaseBuffer(writer);
+    }
+  }
+
+  private int executeInternal(String templateName, Object value, ByteBuffer output, Charset charset) {
+    Preconditions.checkNotNull(output, "buffer cannot be null.");
+    Preconditions.checkNotNull(charset, "charset cannot be null.");
+    final CompiledTemplate template = template(templateName, value);
+    final StringBuilderWriter writer = acquireBuffer();
+    final int start = output.position();
+    try {
+      render(template, value, writer);
+      final CharsetEncoder encoder = encoder(charset);
+      if (encoder.encode(writer.chars(), output, true).isOverflow() || encoder.flush(output).isOverflow()) {
+        output.position(start);
+        throw new BufferOverflowException();
+      }
+      return output.position() - start;
+    } finally {
+      releaseBuffer(writer);
+    }
+  }
+
+  private static ConnectTemplateHashModel model(ConnectRecord record, Struct struct, Map<String, ?> additionalValues) {
+    return new ConnectTemplateHashModel(record, struct, additionalValues);
+  }
+
   public String execute(String templateName, Struct struct) {
     return executeInternal(templateName, struct);
   }
@@ -88,8 +393,84 @@ public class StructTemplate {
     return executeInternal(templateName, values);
   }
 
+  /**
+   * Method is used to render a template for a record. Names are resolved against the topic and
+   * partition of the record, then the fields of the struct, then the headers of the record and
+   * then the additional values.
+   *
+   * @param templateName     name of the template.
+   * @param record           record to render. Can be null, in which case topic, partition and
+   *                         headers are missing.
+   * @param struct           struct to render. Usually the key or value of the record.
+   * @param additionalValues additional values available to the template. Can be null.
+   * @return rendered template.
+   */
   public String execute(String templateName, ConnectRecord record, Struct struct, Map<String, ?> additionalValues) {
-    ConnectTemplateHashModel connectTemplateHashModel = new ConnectTemplateHashModel(record, struct);
-    return executeInternal(templateName, connectTemplateHashModel);
+    return executeInternal(templateName, model(record, struct, additionalValues));
+  }
+
+  /**
+   * Method is used to render a template directly to a writer without building a String.
+   *
+   * @param templateName name of the template.
+   * @param struct       struct to render.
+   * @param writer       writer to render to. Not flushed or closed.
+   */
+  public void execute(String templateName, Struct struct, Writer writer) {
+    executeInternal(templateName, struct, writer);
+  }
+
+  public void execute(String templateName, Map<String, ?> values, Writer writer) {
+    executeInternal(templateName, values, writer);
+  }
+
+  public void execute(String templateName, ConnectRecord record, Struct struct, Map<String, ?> additionalValues, Writer writer) {
+    executeInternal(templateName, model(record, struct, additionalValues), writer);
+  }
+
+  /**
+   * Method is used to render a template and write it encoded to an output stream. The output is
+   * encoded from the render buffer in chunks so no String or byte array of the whole output is
+   * created.
+   *
+   * @param templateName name of the template.
+   * @param struct       struct to render.
+   * @param outputStream stream to write to. Not flushed or closed.
+   * @param charset      charset to encode the output with.
+   */
+  public void execute(String templateName, Struct struct, OutputStream outputStream, Charset charset) {
+    executeInternal(templateName, struct, outputStream, charset);
+  }
+
+  public void execute(String templateName, Map<String, ?> values, OutputStream outputStream, Charset charset) {
+    executeInternal(templateName, values, outputStream, charset);
+  }
+
+  public void execute(String templateName, ConnectRecord record, Struct struct, Map<String, ?> additionalValues, OutputStream outputStream, Charset charset) {
+    executeInternal(templateName, model(record, struct, additionalValues), outputStream, charset);
+  }
+
+  /**
+   * Method is used to render a template and encode it into a buffer. The position of the buffer is
+   * advanced by the number of bytes written.
+   *
+   * @param templateName name of the template.
+   * @param struct       struct to render.
+   * @param buffer       buffer to write to.
+   * @param charset      charset to encode the output with.
+   * @return number of bytes written.
+   * @throws BufferOverflowException if the output does not fit. The position of the buffer is not
+   *                                 changed.
+   */
+  public int execute(String templateName, Struct struct, ByteBuffer buffer, Charset charset) {
+    return executeInternal(templateName, struct, buffer, charset);
+  }
+
+  public int execute(String templateName, Map<String, ?> values, ByteBuffer buffer, Charset charset) {
+    return executeInternal(templateName, values, buffer, charset);
+  }
+
+  public int execute(String templateName, ConnectRecord record, Struct struct, Map<String, ?> additionalValues, ByteBuffer buffer, Charset charset) {
+    return executeInternal(templateName, model(record, struct, additionalValues), buffer, charset);
   }
 }
@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.template;
+
+import com.google.common.base.Preconditions;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builder for a {@link StructTemplate} whose templates are fixed when it is built. The templates
+ * are compiled once by {@link #build()} and the result is safe to share between threads.
+ */
+public class StructTemplateBuilder {
+  private final Map<String, String> templates = new LinkedHashMap<>();
+  private long resultCacheSize = 0L;
+
+  private StructTemplateBuilder() {
+
+  }
+
+  public static StructTemplateBuilder of() {
+    return new StructTemplateBuilder();
+  }
+
+  /**
+   * Method is used to add a template.
+   *
+   * @param templateName name of the template.
+   * @param template     template text.
+   * @return builder
+   */
+  public StructTemplateBuilder addTemplate(String templateName, String template) {
+    Preconditions.checkNotNull(templateName, "templateName cannot be null.");
+    Preconditions.checkNotNull(template, "template cannot be null.");
+    this.templates.put(templateName, template);
+    return this;
+  }
+
+  public long resultCacheSize() {
+    return this.resultCacheSize;
+  }
+
+  /**
+   * Method is used to cache rendered results. Results are cached per template, keyed on the values
+   * of the variables the template references, so repeated inputs return the cached String without
+   * rendering. Only results rendered to a String are cached. Templates that can read variables
+   * not named in the template, and inputs where a referenced value is not an immutable scalar, are
+   * always rendered.
+   *
+   * @param resultCacheSize maximum number of results to cache per template. 0 disables caching.
+   * @return builder
+   */
+  public StructTemplateBuilder resultCacheSize(long resultCacheSize) {
+    Preconditions.checkArgument(resultCacheSize >= 0, "resultCacheSize must be greater than or equal to zero.");
+    this.resultCacheSize = resultCacheSize;
+    return this;
+  }
+
+  /**
+   * Method is used to compile the templates.
+   *
+   * @return StructTemplate that does not allow templates to be added.
+   * @throws org.apache.kafka.connect.errors.DataException if a template cannot be parsed.
+   */
+  public StructTemplate build() {
+    return new StructTemplate(new LinkedHashMap<>(this.templates), this.resultCacheSize);
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright © 2016 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.template;
+
+import com.github.jcustenborder.kafka.connect.utils.data.SchemaIdentityCache;
+import org.apache.kafka.connect.data.ConnectSchema;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+
+/**
+ * Fields of struct schemas for the names referenced by a template. The names are extracted from
+ * the template text when it is compiled and the fields for them are resolved once per schema, so
+ * a variable lookup during a render is an array access instead of a search of the schema.
+ */
+final class TemplateFields {
+  static final int SCHEMA_CACHE_SIZE = 64;
+
+  final String[] names;
+  final Map<String, Integer> indexes;
+  final SchemaIdentityCache<Field[]> fields;
+  final Function<Schema, Field[]> resolver;
+
+  private TemplateFields(String[] names) {
+    this.names = names;
+    this.indexes = new HashMap<>(names.length * 2);
+    for (int i = 0; i < names.length; i++) {
+      this.indexes.put(names[i], i);
+    }
+    this.fields = new SchemaIdentityCache<>(SCHEMA_CACHE_SIZE);
+    this.resolver = this::resolve;
+  }
+
+  /**
+   * Method is used to extract the names referenced by a template.
+   *
+   * @param template template text.
+   * @return fields for the template.
+   */
+  static TemplateFields of(String template) {
+    final Set<String> names = new LinkedHashSet<>();
+    final Matcher matcher = ResultCache.IDENTIFIER.matcher(template);
+    while (matcher.find()) {
+      names.add(matcher.group().replace("\\", ""));
+    }
+    return new TemplateFields(names.toArray(new String[0]));
+  }
+
+  /**
+   * @param name name passed to the hash model.
+   * @return index of the name in the fields returned by {@link #fields(Schema)} or -1 if the
+   *     template text does not contain the name.
+   */
+  int index(String name) {
+    final Integer index = this.indexes.get(name);
+    return null == index ? -1 : index;
+  }
+
+  Field[] resolve(Schema schema) {
+    final Field[] result = new Field[this.names.length];
+    for (int i = 0; i < this.names.length; i++) {
+      result[i] = schema.field(this.names[i]);
+    }
+    return result;
+  }
+
+  /**
+   * Method is used to return the fields of a schema for the names of the template. An element is
+   * null when the schema does not have the field. Fields of a
+   * {@link org.apache.kafka.connect.data.SchemaBuilder} can still change so they are not cached.
+   *
+   * @param schema struct schema.
+   * @return fields indexed like {@link #index(String)}.
+   */
+  Field[] fields(Schema schema) {
+    if (schema instanceof ConnectSchema) {
+      return this.fields.get(schema, this.resolver);
+    }
+    return resolve(schema);
+  }
+}
@@ -16,6 +16,7 @@
 package com.github.jcustenborder.kafka.connect.utils.transformation;
 
 import com.github.jcustenborder.kafka.connect.utils.data.SchemaHelper;
+import com.github.jcustenborder.kafka.connect.utils.data.SchemaIdentityCache;
 import org.apache.kafka.connect.connector.ConnectRecord;
 import org.apache.kafka.connect.data.Decimal;
 import org.apache.kafka.connect.data.Schema;
@@ -23,35 +24,135 @@ import org.apache.kafka.connect.data.SchemaAndValue;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.data.Time;
 import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.header.Headers;
 import org.apache.kafka.connect.transforms.Transformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  *
  * @param <R>
  */
 public abstract class BaseKeyValueTransformation<R extends ConnectRecord<R>> implements Transformation<R> {
+  /**
+   * The part of the record that is processed by the transformation.
+   */
+  public enum Target {
+    /**
+     * The key of the record.
+     */
+    KEY,
+    /**
+     * The value of the record.
+     */
+    VALUE,
+    /**
+     * Each header of the record that {@link #shouldProcessHeader(ConnectRecord, Header)} returns
+     * true for.
+     */
+    HEADERS
+  }
+
   protected final boolean isKey;
+  protected final Target target;
   private static final Logger log = LoggerFactory.getLogger(BaseKeyValueTransformation.class);
+  /**
+   * Default number of input schemas to cache output schemas for.
+   */
+  protected static final int DEFAULT_SCHEMA_CACHE_SIZE = 256;
+  private final SchemaIdentityCache<Schema> outputSchemaCache;
+  private final Function<Schema, Schema> outputSchemaLoader;
+  private final SchemaIdentityCache<Dispatch> headerDispatchCache;
 
   protected BaseKeyValueTransformation(boolean isKey) {
-    this.isKey = isKey;
+    this(isKey, DEFAULT_SCHEMA_CACHE_SIZE);
+  }
+
+  protected BaseKeyValueTransformation(Target target) {
+    this(target, DEFAULT_SCHEMA_CACHE_SIZE);
+  }
+
+  /**
+   * @param isKey           flag to determine if the key or the value of the record is processed.
+   * @param schemaCacheSize number of input schemas to cache output schemas for.
+   */
+  protected BaseKeyValueTransformation(boolean isKey, int schemaCacheSize) {
+    this(isKey ? Target.KEY : Target.VALUE, schemaCacheSize);
+  }
+
+  /**
+   * @param target          part of the record that is processed.
+   * @param schemaCacheSize number of input schemas to cache output schemas for.
+   */
+  protected BaseKeyValueTransformation(Target target, int schemaCacheSize) {
+    this.target = target;
+    this.isKey = Target.KEY == target;
+    this.outputSchemaCache = new SchemaIdentityCache<>(schemaCacheSize);
+    this.outputSchemaLoader = this::outputSchema;
+    this.headerDispatchCache = Target.HEADERS == target ? new SchemaIdentityCache<>(schemaCacheSize) : null;
   }
 
   protected SchemaAndValue processMap(R record, Map<String, Object> input) {
     throw new UnsupportedOperationException("MAP is not a supported type.");
   }
 
+  /**
+   * Method is used to process a struct. The default implementation looks up the output schema for
+   * the input schema with {@link #outputSchema(Schema)}, which is only called once per input schema,
+   * then converts the value with {@link #transformValue(Struct, Schema)}. Subclasses can either
+   * implement those two methods or override this one.
+   *
+   * @param record      record being processed.
+   * @param inputSchema schema of the struct.
+   * @param input       struct to process.
+   * @return processed schema and value.
+   */
   protected SchemaAndValue processStruct(R record, Schema inputSchema, Struct input) {
+    final Schema outputSchema = cachedOutputSchema(inputSchema);
+    return new SchemaAndValue(outputSchema, transformValue(input, outputSchema));
+  }
+
+  /**
+   * Method is used to compute the output schema for a struct schema. The result is cached by input
+   * schema instance so this is not called for every record.
+   *
+   * @param inputSchema schema of the input struct.
+   * @return schema of the output value.
+   */
+  protected Schema outputSchema(Schema inputSchema) {
     throw new UnsupportedOperationException("STRUCT is not a supported type.");
   }
 
+  /**
+   * Method is used to convert a struct to the output schema returned by {@link #outputSchema(Schema)}.
+   *
+   * @param input        struct to convert.
+   * @param outputSchema output schema for the schema of the input.
+   * @return value matching the output schema.
+   */
+  protected Object transformValue(Struct input, Schema outputSchema) {
+    throw new UnsupportedOperationException("STRUCT is not a supported type.");
+  }
+
+  /**
+   * Method is used to return the cached output schema for an input schema.
+   *
+   * @param inputSchema input schema.
+   * @return output schema returned by {@link #outputSchema(Schema)} for the input schema.
+   */
+  protected final Schema cachedOutputSchema(Schema inputSchema) {
+    return this.outputSchemaCache.get(inputSchema, this.outputSchemaLoader);
+  }
+
   protected SchemaAndValue processString(R record, Schema inputSchema, String input) {
     throw new UnsupportedOperationException("STRING is not a supported type.");
   }
@@ -114,97 +215,348 @@ public abstract class BaseKeyValueTransformation<R extends ConnectRecord<R>> imp
 
   private static final Schema OPTIONAL_TIMESTAMP = Timestamp.builder().optional().build();
 
+  /**
+   * The process method that handles a schema. Resolved once per schema so the logical name of the
+   * schema is not compared against every logical type for each record.
+   */
+  enum Dispatch {
+    STRUCT,
+    TIMESTAMP,
+    DATE,
+    TIME,
+    DECIMAL,
+    STRING,
+    BYTES,
+    INT8,
+    INT16,
+    INT32,
+    INT64,
+    FLOAT32,
+    FLOAT64,
+    ARRAY,
+    MAP,
+    BOOLEAN,
+    UNSUPPORTED;
+
+    static Dispatch of(Schema schema) {
+      final String name = schema.name();
+      switch (schema.type()) {
+        case STRUCT:
+          return STRUCT;
+        case INT64:
+          return Timestamp.LOGICAL_NAME.equals(name) ? TIMESTAMP : INT64;
+        case INT32:
+          if (org.apache.kafka.connect.data.Date.LOGICAL_NAME.equals(name)) {
+            return DATE;
+          }
+          return Time.LOGICAL_NAME.equals(name) ? TIME : INT32;
+        case BYTES:
+          return Decimal.LOGICAL_NAME.equals(name) ? DECIMAL : BYTES;
+        case STRING:
+          return STRING;
+        case INT8:
+          return INT8;
+        case INT16:
+          return INT16;
+        case FLOAT32:
+          return FLOAT32;
+        case FLOAT64:
+          return FLOAT64;
+        case ARRAY:
+          return ARRAY;
+        case MAP:
+          return MAP;
+        case BOOLEAN:
+          return BOOLEAN;
+        default:
+          return UNSUPPORTED;
+      }
+    }
+  }
+
+  static final class DispatchEntry {
+    final Schema schema;
+    final Dispatch dispatch;
+
+    DispatchEntry(Schema schema, Dispatch dispatch) {
+      this.schema = schema;
+      this.dispatch = dispatch;
+    }
+  }
+
+  private DispatchEntry lastDispatch;
+
+  /**
+   * Method is used to resolve the process method for a schema. The result for the last schema
+   * instance is kept since most records processed by a transformation share a schema. Headers of a
+   * record usually have different schemas so they are cached per schema instance as well.
+   */
+  Dispatch dispatch(Schema schema) {
+    final DispatchEntry last = this.lastDispatch;
+    if (null != last && last.schema == schema) {
+      return last.dispatch;
+    }
+    final Dispatch dispatch = null != this.headerDispatchCache ?
+        this.headerDispatchCache.get(schema, Dispatch::of) :
+        Dispatch.of(schema);
+    this.lastDispatch = new DispatchEntry(schema, dispatch);
+    return dispatch;
+  }
+
 
   protected SchemaAndValue process(R record, SchemaAndValue input) {
+    return process(record, input.schema(), input.value());
+  }
+
+  SchemaAndValue process(R record, Schema inputSchema, Object inputValue) {
     final SchemaAndValue result;
 
-    if (null == input.schema() && null == input.value()) {
-      return new SchemaAndValue(
-          null,
-          null
-      );
+    if (null == inputSchema && null == inputValue) {
+      return SchemaAndValue.NULL;
     }
 
-    if (input.value() instanceof Map) {
+    if (inputValue instanceof Map) {
       log.trace("process() - Processing as map");
-      result = processMap(record, (Map<String, Object>) input.value());
+      result = processMap(record, (Map<String, Object>) inputValue);
       return result;
     }
 
-    if (null == input.schema()) {
+    final Schema schema;
+    if (null == inputSchema) {
       log.trace("process() - Determining schema");
-      final Schema schema = SchemaHelper.schema(input.value());
-      return process(record, new SchemaAndValue(schema, input.value()));
-    }
-
-    log.trace("process() - input.value() has as schema. schema = {}", input.schema());
-    if (Schema.Type.STRUCT == input.schema().type()) {
-      result = processStruct(record, input.schema(), (Struct) input.value());
-    } else if (Timestamp.LOGICAL_NAME.equals(input.schema().name())) {
-      result = processTimestamp(record, input.schema(), (Date) input.value());
-    } else if (org.apache.kafka.connect.data.Date.LOGICAL_NAME.equals(input.schema().name())) {
-      result = processDate(record, input.schema(), (Date) input.value());
-    } else if (Time.LOGICAL_NAME.equals(input.schema().name())) {
-      result = processTime(record, input.schema(), (Date) input.value());
-    } else if (Decimal.LOGICAL_NAME.equals(input.schema().name())) {
-      result = processDecimal(record, input.schema(), (BigDecimal) input.value());
-    } else if (Schema.Type.STRING == input.schema().type()) {
-      result = processString(record, input.schema(), (String) input.value());
-    } else if (Schema.Type.BYTES == input.schema().type()) {
-      result = processBytes(record, input.schema(), (byte[]) input.value());
-    } else if (Schema.Type.INT8 == input.schema().type()) {
-      result = processInt8(record, input.schema(), (byte) input.value());
-    } else if (Schema.Type.INT16 == input.schema().type()) {
-      result = processInt16(record, input.schema(), (short) input.value());
-    } else if (Schema.Type.INT32 == input.schema().type()) {
-      result = processInt32(record, input.schema(), (int) input.value());
-    } else if (Schema.Type.INT64 == input.schema().type()) {
-      result = processInt64(record, input.schema(), (long) input.value());
-    } else if (Schema.Type.FLOAT32 == input.schema().type()) {
-      result = processFloat32(record, input.schema(), (float) input.value());
-    } else if (Schema.Type.FLOAT64 == input.schema().type()) {
-      result = processFloat64(record, input.schema(), (double) input.value());
-    } else if (Schema.Type.ARRAY == input.schema().type()) {
-      result = processArray(record, input.schema(), (List<Object>) input.value());
-    } else if (Schema.Type.MAP == input.schema().type()) {
-      result = processMap(record, input.schema(), (Map<Object, Object>) input.value());
-    } else if (Schema.Type.BOOLEAN == input.schema().type()) {
-      result = processBoolean(record, input.schema(), (boolean) input.value());
+      schema = SchemaHelper.schema(inputValue);
     } else {
-      throw new UnsupportedOperationException(
-          String.format(
-              "Schema is not supported. type='%s' name='%s'",
-              input.schema().type(),
-              input.schema().name()
-          )
-      );
+      schema = inputSchema;
+    }
+
+    log.trace("process() - input.value() has as schema. schema = {}", schema);
+    switch (dispatch(schema)) {
+      case STRUCT:
+        result = processStruct(record, schema, (Struct) inputValue);
+        break;
+      case TIMESTAMP:
+        result = processTimestamp(record, schema, (Date) inputValue);
+        break;
+      case DATE:
+        result = processDate(record, schema, (Date) inputValue);
+        break;
+      case TIME:
+        result = processTime(record, schema, (Date) inputValue);
+        break;
+      case DECIMAL:
+        result = processDecimal(record, schema, (BigDecimal) inputValue);
+        break;
+      case STRING:
+        result = processString(record, schema, (String) inputValue);
+        break;
+      case BYTES:
+        result = processBytes(record, schema, (byte[]) inputValue);
+        break;
+      case INT8:
+        result = processInt8(record, schema, (byte) inputValue);
+        break;
+      case INT16:
+        result = processInt16(record, schema, (short) inputValue);
+        break;
+      case INT32:
+        result = processInt32(record, schema, (int) inputValue);
+        break;
+      case INT64:
+        result = processInt64(record, schema, (long) inputValue);
+        break;
+      case FLOAT32:
+        result = processFloat32(record, schema, (float) inputValue);
+        break;
+      case FLOAT64:
+        result = processFloat64(record, schema, (double) inputValue);
+        break;
+      case ARRAY:
+        result = processArray(record, schema, (List<Object>) inputValue);
+        break;
+      case MAP:
+        result = processMap(record, schema, (Map<Object, Object>) inputValue);
+        break;
+      case BOOLEAN:
+        result = processBoolean(record, schema, (boolean) inputValue);
+        break;
+      default:
+        throw new UnsupportedOperationException(
+            String.format(
+                "Schema is not supported. type='%s' name='%s'",
+                schema.type(),
+                schema.name()
+            )
+        );
     }
 
     return result;
   }
 
 
-  @Override
-  public R apply(R record) {
-    SchemaAndValue key = new SchemaAndValue(record.keySchema(), record.key());
-    SchemaAndValue value = new SchemaAndValue(record.valueSchema(), record.value());
-    final SchemaAndValue input = this.isKey ? key : value;
-    final SchemaAndValue result = process(record, input);
+  /**
+   * Flag for each class to determine if it overrides {@link #process(ConnectRecord, SchemaAndValue)}.
+   * When it does not, records are processed without wrapping the input in a SchemaAndValue.
+   */
+  private static final ClassValue<Boolean> OVERRIDES_PROCESS = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      for (Class<?> c = type; null != c && BaseKeyValueTransformation.class != c; c = c.getSuperclass()) {
+        try {
+          c.getDeclaredMethod("process", ConnectRecord.class, SchemaAndValue.class);
+          return true;
+        } catch (NoSuchMethodException e) {
+          // Keep walking up the hierarchy.
+        }
+      }
+      return false;
+    }
+  };
+
+  /**
+   * Method is used to determine if a record should be processed. Records this returns false for are
+   * returned by {@link #apply(ConnectRecord)} as is, before any processing. Implementations should
+   * be cheap, for example checking the topic or the schema name.
+   *
+   * @param record record to check.
+   * @return true if the record should be processed.
+   */
+  protected boolean shouldProcess(R record) {
+    return true;
+  }
+
+  /**
+   * Method is used to determine if a header should be processed when the target is
+   * {@link Target#HEADERS}. Headers this returns false for, and headers without a value, are copied
+   * as is.
+   *
+   * @param record record the header belongs to.
+   * @param header header to check.
+   * @return true if the header should be processed.
+   */
+  protected boolean shouldProcessHeader(R record, Header header) {
+    return true;
+  }
+
+  private SchemaAndValue process(R record, Schema inputSchema, Object inputValue, boolean overridesProcess) {
+    if (overridesProcess) {
+      return process(record, new SchemaAndValue(inputSchema, inputValue));
+    }
+    return process(record, inputSchema, inputValue);
+  }
+
+  /**
+   * Method is used to process the headers of a record. The headers are only copied once a header is
+   * changed, and the record is only rebuilt when at least one header changed.
+   */
+  private R applyHeaders(R record) {
+    final Headers inputHeaders = record.headers();
+    final boolean overridesProcess = OVERRIDES_PROCESS.get(getClass());
+    Headers outputHeaders = null;
+    int index = 0;
+    for (Header header : inputHeaders) {
+      Header outputHeader = header;
+      if (null != header.value() && shouldProcessHeader(record, header)) {
+        final SchemaAndValue result = process(record, header.schema(), header.value(), overridesProcess);
+        if (result.schema() != header.schema() || result.value() != header.value()) {
+          outputHeader = header.with(result.schema(), result.value());
+        }
+      }
+      if (null == outputHeaders && outputHeader != header) {
+        log.trace("applyHeaders() - Header '{}' changed. Copying headers.", header.key());
+        outputHeaders = new ConnectHeaders();
+        int i = 0;
+        for (Header previous : inputHeaders) {
+          if (i++ == index) {
+            break;
+          }
+          outputHeaders.add(previous);
+        }
+      }
+      if (null != outputHeaders) {
+        outputHeaders.add(outputHeader);
+      }
+      index++;
+    }
+
+    if (null == outputHeaders) {
+      return record;
+    }
+    return record.newRecord(
+        record.topic(),
+        record.kafkaPartition(),
+        record.keySchema(),
+        record.key(),
+        record.valueSchema(),
+        record.value(),
+        record.timestamp(),
+        outputHeaders
+    );
+  }
+
+  private R newRecord(R record, SchemaAndValue result) {
+    final Schema keySchema;
+    final Object key;
+    final Schema valueSchema;
+    final Object value;
     if (this.isKey) {
-      key = result;
+      keySchema = result.schema();
+      key = result.value();
+      valueSchema = record.valueSchema();
+      value = record.value();
     } else {
-      value = result;
+      keySchema = record.keySchema();
+      key = record.key();
+      valueSchema = result.schema();
+      value = result.value();
     }
 
     return record.newRecord(
         record.topic(),
         record.kafkaPartition(),
-        key.schema(),
-        key.value(),
-        value.schema(),
-        value.value(),
+        keySchema,
+        key,
+        valueSchema,
+        value,
         record.timestamp(),
         record.headers()
     );
   }
+
+  @Override
+  public R apply(R record) {
+    if (!shouldProcess(record)) {
+      return record;
+    }
+    if (Target.HEADERS == this.target) {
+      return applyHeaders(record);
+    }
+    final Schema inputSchema = this.isKey ? record.keySchema() : record.valueSchema();
+    final Object inputValue = this.isKey ? record.key() : record.value();
+    final SchemaAndValue result = process(record, inputSchema, inputValue, OVERRIDES_PROCESS.get(getClass()));
+    if (result.schema() == inputSchema && result.value() == inputValue) {
+      log.trace("apply() - Schema and value are unchanged. Returning the input record.");
+      return record;
+    }
+    return newRecord(record, result);
+  }
+
+  /**
+   * Method is used to transform a batch of records. This can be called directly by connectors and
+   * test harnesses that have a batch of records available. The records are processed in order so
+   * runs of records sharing a schema reuse the dispatch and output schema resolved for the first
+   * record of the run. Records that {@link #apply(ConnectRecord)} returns null for are removed.
+   *
+   * @param records records to transform.
+   * @return transformed records in the same order as the input.
+   */
+  public List<R> applyAll(List<R> records) {
+    final List<R> result = new ArrayList<>(records.size());
+    for (R record : records) {
+      final R transformed = apply(record);
+      if (null != transformed) {
+        result.add(transformed);
+      }
+    }
+    return result;
+  }
 }
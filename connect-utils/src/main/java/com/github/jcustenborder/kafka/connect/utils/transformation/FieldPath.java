@@ -0,0 +1,294 @@
+/**
+ * Copyright © 2017 Jeremy Custenborder (jcustenborder@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.jcustenborder.kafka.connect.utils.transformation;
+
+import com.github.jcustenborder.kafka.connect.utils.data.SchemaIdentityCache;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Path to a nested field of a struct, for example {@code a.b.c}. The fields along the path are
+ * resolved once per root schema so reading or replacing a nested value does not look up fields by
+ * name. Updates only rebuild the structs along the path, every other field is copied by reference
+ * so unchanged substructures are shared with the input.
+ */
+public final class FieldPath {
+  static final int SCHEMA_CACHE_SIZE = 256;
+  static final int OUTPUT_SCHEMA_CACHE_SIZE = 16;
+
+  private final String path;
+  private final String[] names;
+  private final SchemaIdentityCache<Compiled> compiled;
+  private final Function<Schema, Compiled> compiler;
+
+  private FieldPath(String path, String[] names) {
+    this.path = path;
+    this.names = names;
+    this.compiled = new SchemaIdentityCache<>(SCHEMA_CACHE_SIZE);
+    this.compiler = this::compile;
+  }
+
+  /**
+   * Method is used to create a field path from a dotted string.
+   *
+   * @param path path to the field separated by '.'. For example {@code a.b.c}
+   * @return field path.
+   */
+  public static FieldPath of(String path) {
+    Preconditions.checkArgument(!Strings.isNullOrEmpty(path), "path cannot be null or empty.");
+    final String[] names = path.split("\\.", -1);
+    for (String name : names) {
+      Preconditions.checkArgument(!name.isEmpty(), "path '%s' contains an empty field name.", path);
+    }
+    return new FieldPath(path, names);
+  }
+
+  /**
+   * @return the path as passed to {@link #of(String)}.
+   */
+  public String path() {
+    return this.path;
+  }
+
+  /**
+   * @return number of fields in the path.
+   */
+  public int depth() {
+    return this.names.length;
+  }
+
+  /**
+   * Fields along the path for a root schema.
+   */
+  static final class Compiled {
+    /**
+     * schemas[i] is the struct schema at depth i. schemas[0] is the root schema.
+     */
+    final Schema[] schemas;
+    /**
+     * fields[i] is the field of schemas[i] that is on the path.
+     */
+    final Field[] fields;
+    final SchemaIdentityCache<Schema[]> outputSchemas;
+
+    Compiled(Schema[] schemas, Field[] fields) {
+      this.schemas = schemas;
+      this.fields = fields;
+      this.outputSchemas = new SchemaIdentityCache<>(OUTPUT_SCHEMA_CACHE_SIZE);
+    }
+
+    Field leaf() {
+      return this.fields[this.fields.length - 1];
+    }
+
+    /**
+     * Method is used to build the struct schemas along the path when the leaf field has a new
+     * schema.
+     */
+    Schema[] outputSchemas(Schema leafSchema) {
+      final Schema[] result = new Schema[this.schemas.length];
+      Schema child = leafSchema;
+      for (int i = this.schemas.length - 1; i >= 0; i--) {
+        child = replaceField(this.schemas[i], this.fields[i], child);
+        result[i] = child;
+      }
+      return result;
+    }
+  }
+
+  Compiled compile(Schema schema) {
+    final Schema[] schemas = new Schema[this.names.length];
+    final Field[] fields = new Field[this.names.length];
+    Schema current = schema;
+    for (int i = 0; i < this.names.length; i++) {
+      if (Schema.Type.STRUCT != current.type()) {
+        throw new DataException(
+            String.format(
+                "Cannot resolve '%s'. '%s' is a %s not a STRUCT.",
+                this.path,
+                0 == i ? "<root>" : String.join(".", Arrays.copyOf(this.names, i)),
+                current.type()
+            )
+        );
+      }
+      final Field field = current.field(this.names[i]);
+      if (null == field) {
+        throw new DataException(
+            String.format("Cannot resolve '%s'. Field '%s' does not exist.", this.path, this.names[i])
+        );
+      }
+      schemas[i] = current;
+      fields[i] = field;
+      current = field.schema();
+    }
+    return new Compiled(schemas, fields);
+  }
+
+  private Compiled compiled(Schema schema) {
+    return this.compiled.get(schema, this.compiler);
+  }
+
+  /**
+   * Method is used to return the schema of the field at the end of the path.
+   *
+   * @param schema root schema.
+   * @return schema of the nested field.
+   * @throws DataException if the path does not exist in the schema.
+   */
+  public Schema schema(Schema schema) {
+    return compiled(schema).leaf().schema();
+  }
+
+  /**
+   * Method is used to return the output schema when the field at the end of the path is replaced
+   * with a value of another schema. The result is cached so repeated calls return the same instance.
+   *
+   * @param schema      root schema.
+   * @param valueSchema new schema of the nested field.
+   * @return root schema with the nested field replaced.
+   */
+  public Schema schema(Schema schema, Schema valueSchema) {
+    final Compiled compiled = compiled(schema);
+    if (compiled.leaf().schema() == valueSchema) {
+      return schema;
+    }
+    return compiled.outputSchemas.get(valueSchema, compiled::outputSchemas)[0];
+  }
+
+  /**
+   * Method is used to read the value of the nested field.
+   *
+   * @param struct root struct.
+   * @return value of the nested field. null if the field or a struct along the path is null.
+   */
+  public Object get(Struct struct) {
+    final Compiled compiled = compiled(struct.schema());
+    Object current = struct;
+    for (Field field : compiled.fields) {
+      if (null == current) {
+        return null;
+      }
+      current = ((Struct) current).get(field);
+    }
+    return current;
+  }
+
+  /**
+   * Method is used to replace the value of the nested field. The value must match the existing
+   * schema of the field.
+   *
+   * @param struct root struct. Not modified.
+   * @param value  new value of the nested field.
+   * @return new root struct.
+   * @throws DataException if a struct along the path is null or the value does not match.
+   */
+  public Struct put(Struct struct, Object value) {
+    final Compiled compiled = compiled(struct.schema());
+    return put(compiled, compiled.schemas, struct, value);
+  }
+
+  /**
+   * Method is used to replace the nested field with a value of another schema. The struct schemas
+   * along the path are rebuilt once per (root schema, value schema) and reused.
+   *
+   * @param struct      root struct. Not modified.
+   * @param valueSchema schema of the new value.
+   * @param value       new value of the nested field.
+   * @return new root struct.
+   * @throws DataException if a struct along the path is null or the value does not match.
+   */
+  public Struct put(Struct struct, Schema valueSchema, Object value) {
+    final Compiled compiled = compiled(struct.schema());
+    final Schema[] outputSchemas;
+    if (compiled.leaf().schema() == valueSchema) {
+      outputSchemas = compiled.schemas;
+    } else {
+      outputSchemas = compiled.outputSchemas.get(valueSchema, compiled::outputSchemas);
+    }
+    return put(compiled, outputSchemas, struct, value);
+  }
+
+  private Struct put(Compiled compiled, Schema[] outputSchemas, Struct struct, Object value) {
+    final Field[] fields = compiled.fields;
+    final Struct[] structs = new Struct[fields.length];
+    structs[0] = struct;
+    for (int i = 1; i < fields.length; i++) {
+      final Struct parent = (Struct) structs[i - 1].get(fields[i - 1]);
+      if (null == parent) {
+        throw new DataException(
+            String.format(
+                "Cannot set '%s'. '%s' is null.",
+                this.path,
+                String.join(".", Arrays.copyOf(this.names, i))
+            )
+        );
+      }
+      structs[i] = parent;
+    }
+
+    Object child = value;
+    for (int i = fields.length - 1; i >= 0; i--) {
+      child = copy(structs[i], outputSchemas[i], fields[i].index(), child);
+    }
+    return (Struct) child;
+  }
+
+  private static Struct copy(Struct input, Schema outputSchema, int index, Object value) {
+    final List<Field> inputFields = input.schema().fields();
+    final List<Field> outputFields = outputSchema.fields();
+    final Struct result = new Struct(outputSchema);
+    for (int i = 0; i < outputFields.size(); i++) {
+      final Object fieldValue = i == index ? value : input.get(inputFields.get(i));
+      result.put(outputFields.get(i), fieldValue);
+    }
+    return result;
+  }
+
+  static Schema replaceField(Schema schema, Field replace, Schema fieldSchema) {
+    final SchemaBuilder builder = SchemaBuilder.struct();
+    if (schema.isOptional()) {
+      builder.optional();
+    }
+    if (!Strings.isNullOrEmpty(schema.name())) {
+      builder.name(schema.name());
+    }
+    if (!Strings.isNullOrEmpty(schema.doc())) {
+      builder.doc(schema.doc());
+    }
+    builder.version(schema.version());
+    if (null != schema.parameters()) {
+      builder.parameters(schema.parameters());
+    }
+    for (Field field : schema.fields()) {
+      builder.field(field.name(), field.index() == replace.index() ? fieldSchema : field.schema());
+    }
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    return this.path;
+  }
+}
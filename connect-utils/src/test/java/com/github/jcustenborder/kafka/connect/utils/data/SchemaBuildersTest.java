@@ -17,6 +17,9 @@ import java.util.stream.Stream;
 import static com.github.jcustenborder.kafka.connect.utils.AssertSchema.assertSchema;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 public class SchemaBuildersTest {
@@ -34,6 +37,52 @@ public class SchemaBuildersTest {
     assertEquals(expected, builder.build());
   }
 
+  @Test
+  public void derive() {
+    final Schema input = SchemaBuilder.struct()
+        .field("firstName", Schema.STRING_SCHEMA)
+        .field("lastName", Schema.STRING_SCHEMA)
+        .field("age", Schema.INT32_SCHEMA)
+        .build();
+    final Schema actual = SchemaBuilders.derive(input, "lastName", "age");
+    assertEquals(SchemaBuilders.of(input, "lastName", "age").build(), actual);
+    assertSame(actual, SchemaBuilders.derive(input, "age", "lastName"));
+    assertSame(actual, SchemaBuilders.derive(input, Arrays.asList("lastName", "age", "age")));
+    assertNotSame(actual, SchemaBuilders.derive(input, "age"));
+    final Schema equalInput = SchemaBuilders.of(input).build();
+    assertNotSame(actual, SchemaBuilders.derive(equalInput, "lastName", "age"));
+  }
+
+  @Test
+  public void deriveBounded() {
+    final SchemaBuilder builder = SchemaBuilder.struct();
+    for (int i = 0; i < SchemaBuilders.DERIVED_PER_SCHEMA * 2; i++) {
+      builder.field("field" + i, Schema.STRING_SCHEMA);
+    }
+    final Schema input = builder.build();
+    final Schema first = SchemaBuilders.derive(input, "field0");
+    for (int i = 0; i < SchemaBuilders.DERIVED_PER_SCHEMA * 2; i++) {
+      SchemaBuilders.derive(input, "field" + i);
+    }
+    assertEquals(
+        SchemaBuilders.DERIVED_PER_SCHEMA,
+        SchemaBuilders.DERIVED.getIfPresent(input).entries.length
+    );
+    assertNotSame(first, SchemaBuilders.derive(input, "field0"));
+    assertEquals(first, SchemaBuilders.derive(input, "field0"));
+  }
+
+  @Test
+  public void deriveBuilderNotCached() {
+    final SchemaBuilder builder = SchemaBuilder.struct()
+        .field("firstName", Schema.STRING_SCHEMA)
+        .field("lastName", Schema.STRING_SCHEMA);
+    assertEquals(1, SchemaBuilders.derive(builder, "lastName").fields().size());
+    builder.field("age", Schema.INT32_SCHEMA);
+    assertEquals(2, SchemaBuilders.derive(builder, "lastName").fields().size());
+    assertNull(SchemaBuilders.DERIVED.getIfPresent(builder));
+  }
+
   @TestFactory
   public Stream<DynamicTest> of() {
     List<Schema> schemas = new ArrayList<>();
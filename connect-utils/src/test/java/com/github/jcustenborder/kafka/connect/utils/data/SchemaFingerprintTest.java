@@ -0,0 +1,139 @@
+package com.github.jcustenborder.kafka.connect.utils.data;
+
+import com.google.common.collect.ImmutableMap;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class SchemaFingerprintTest {
+
+  static Schema person() {
+    return SchemaBuilder.struct()
+        .field("firstName", Schema.STRING_SCHEMA)
+        .field("lastName", Schema.OPTIONAL_STRING_SCHEMA)
+        .field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+        .field("attributes", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT32_SCHEMA).build())
+        .build();
+  }
+
+  @Test
+  public void structural() {
+    final Schema first = person();
+    final Schema second = person();
+    assertEquals(first, second);
+    assertEquals(SchemaFingerprint.of(first), SchemaFingerprint.of(second));
+    assertEquals(SchemaFingerprint.of(first), SchemaFingerprint.of(first));
+  }
+
+  @Test
+  public void unnamedStructs() {
+    final Schema first = SchemaBuilder.struct().field("a", Schema.STRING_SCHEMA).build();
+    final Schema second = SchemaBuilder.struct().field("b", Schema.STRING_SCHEMA).build();
+    final Schema third = SchemaBuilder.struct().field("a", Schema.INT32_SCHEMA).build();
+    assertEquals(SchemaKey.of(first), SchemaKey.of(second));
+    assertNotEquals(SchemaFingerprint.of(first), SchemaFingerprint.of(second));
+    assertNotEquals(SchemaFingerprint.of(first), SchemaFingerprint.of(third));
+  }
+
+  @Test
+  public void differences() {
+    assertNotEquals(SchemaFingerprint.of(Schema.STRING_SCHEMA), SchemaFingerprint.of(Schema.OPTIONAL_STRING_SCHEMA));
+    assertNotEquals(SchemaFingerprint.of(Decimal.schema(2)), SchemaFingerprint.of(Decimal.schema(3)));
+    assertNotEquals(
+        SchemaFingerprint.of(SchemaBuilder.string().name("foo").build()),
+        SchemaFingerprint.of(SchemaBuilder.string().name("foo").version(2).build())
+    );
+    assertNotEquals(
+        SchemaFingerprint.of(SchemaBuilder.array(Schema.STRING_SCHEMA).build()),
+        SchemaFingerprint.of(SchemaBuilder.array(Schema.INT32_SCHEMA).build())
+    );
+    assertNotEquals(
+        SchemaFingerprint.of(SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT32_SCHEMA).build()),
+        SchemaFingerprint.of(SchemaBuilder.map(Schema.INT32_SCHEMA, Schema.STRING_SCHEMA).build())
+    );
+    assertNotEquals(
+        SchemaFingerprint.of(SchemaBuilder.int32().defaultValue(1).build()),
+        SchemaFingerprint.of(SchemaBuilder.int32().defaultValue(2).build())
+    );
+  }
+
+  @Test
+  public void builderIsNotCached() {
+    final SchemaBuilder builder = SchemaBuilder.struct().field("a", Schema.STRING_SCHEMA);
+    final long before = SchemaFingerprint.of(builder);
+    builder.field("b", Schema.STRING_SCHEMA);
+    assertNotEquals(before, SchemaFingerprint.of(builder));
+    assertEquals(SchemaFingerprint.of(builder.build()), SchemaFingerprint.of(builder));
+  }
+
+  @Test
+  public void stable() {
+    assertEquals(0x90ce6df4329d0083L, SchemaFingerprint.of(Schema.STRING_SCHEMA));
+    assertEquals(
+        0xbaa695fda43fac99L,
+        SchemaFingerprint.of(SchemaBuilder.struct().name("a").field("x", Schema.INT32_SCHEMA).build())
+    );
+  }
+
+  static Schema withDefaults() {
+    final SchemaBuilder inner = SchemaBuilder.struct()
+        .field("value", Schema.STRING_SCHEMA);
+    inner.defaultValue(new Struct(inner).put("value", "a"));
+    return SchemaBuilder.struct()
+        .field("timestamp", Timestamp.builder().defaultValue(new Date(1500000000000L)).build())
+        .field("date", org.apache.kafka.connect.data.Date.builder().defaultValue(new Date(86400000L * 17000)).build())
+        .field("time", Time.builder().defaultValue(new Date(3600000L)).build())
+        .field("decimal", Decimal.builder(2).defaultValue(new BigDecimal("12.34")).build())
+        .field("array", SchemaBuilder.array(Schema.STRING_SCHEMA).defaultValue(Arrays.asList("a", "b")).build())
+        .field("map", SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT32_SCHEMA).defaultValue(ImmutableMap.of("a", 1, "b", 2)).build())
+        .field("struct", inner.build())
+        .build();
+  }
+
+  @Test
+  public void defaultValuesIndependentOfTimeZone() {
+    final TimeZone timeZone = TimeZone.getDefault();
+    try {
+      TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+      final long expected = SchemaFingerprint.of(withDefaults());
+      TimeZone.setDefault(TimeZone.getTimeZone("America/Chicago"));
+      assertEquals(expected, SchemaFingerprint.of(withDefaults()));
+      TimeZone.setDefault(TimeZone.getTimeZone("Asia/Tokyo"));
+      assertEquals(expected, SchemaFingerprint.of(withDefaults()));
+    } finally {
+      TimeZone.setDefault(timeZone);
+    }
+  }
+
+  @Test
+  public void mapDefaultOrder() {
+    final Map<String, Integer> first = new LinkedHashMap<>();
+    first.put("a", 1);
+    first.put("b", 2);
+    final Map<String, Integer> second = new LinkedHashMap<>();
+    second.put("b", 2);
+    second.put("a", 1);
+    assertEquals(
+        SchemaFingerprint.of(SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT32_SCHEMA).defaultValue(first).build()),
+        SchemaFingerprint.of(SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.INT32_SCHEMA).defaultValue(second).build())
+    );
+    assertNotEquals(
+        SchemaFingerprint.of(Decimal.builder(2).defaultValue(new BigDecimal("12.34")).build()),
+        SchemaFingerprint.of(Decimal.builder(2).defaultValue(new BigDecimal("12.35")).build())
+    );
+  }
+}
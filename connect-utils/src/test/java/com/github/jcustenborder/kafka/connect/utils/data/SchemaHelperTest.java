@@ -3,16 +3,27 @@ package com.github.jcustenborder.kafka.connect.utils.data;
 import com.google.common.base.MoreObjects;
 import org.apache.kafka.connect.data.Decimal;
 import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.data.Timestamp;
 import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static com.github.jcustenborder.kafka.connect.utils.AssertSchema.assertSchema;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
 public class SchemaHelperTest {
@@ -57,4 +68,94 @@ public class SchemaHelperTest {
           assertSchema(t.expectedSchema, actual);
         }));
   }
+
+  @Test
+  public void schemasAreShared() {
+    assertSame(SchemaHelper.schema("first"), SchemaHelper.schema("second"));
+    assertSame(SchemaHelper.schema(1L), SchemaHelper.schema(2L));
+    assertSame(SchemaHelper.schema(new Date()), SchemaHelper.schema(new Date(0L)));
+    assertSame(SchemaHelper.schema(new BigDecimal("1.23")), SchemaHelper.schema(new BigDecimal("4.56")));
+  }
+
+  @Test
+  public void uncommonDecimalScale() {
+    final BigDecimal input = BigDecimal.ONE.setScale(50);
+    assertSchema(Decimal.builder(50).optional().build(), SchemaHelper.schema(input));
+    final BigDecimal negative = new BigDecimal("1E+5");
+    assertEquals(-5, negative.scale());
+    assertSchema(Decimal.builder(-5).optional().build(), SchemaHelper.schema(negative));
+  }
+
+  @Test
+  public void list() {
+    final Schema actual = SchemaHelper.schema(Arrays.asList("a", null, "b"));
+    assertSchema(SchemaBuilder.array(Schema.OPTIONAL_STRING_SCHEMA).optional().build(), actual);
+    assertSame(actual, SchemaHelper.schema(Arrays.asList("c")));
+  }
+
+  @Test
+  public void nested() {
+    final Map<String, Object> first = new LinkedHashMap<>();
+    first.put("a", Arrays.asList(1L, 2L));
+    first.put("b", Collections.emptyList());
+    final Map<String, Object> second = new LinkedHashMap<>();
+    second.put("c", Arrays.asList(3L));
+
+    final Schema expected = SchemaBuilder.map(
+        Schema.OPTIONAL_STRING_SCHEMA,
+        SchemaBuilder.array(Schema.OPTIONAL_INT64_SCHEMA).optional().build()
+    ).optional().build();
+    final Schema actual = SchemaHelper.schema(first);
+    assertSchema(expected, actual);
+    assertSame(actual, SchemaHelper.schema(second));
+    assertSchema(
+        SchemaBuilder.array(expected).optional().build(),
+        SchemaHelper.schema(Arrays.asList(first, second))
+    );
+  }
+
+  @Test
+  public void emptyCollections() {
+    assertSchema(
+        SchemaBuilder.array(Schema.OPTIONAL_STRING_SCHEMA).optional().build(),
+        SchemaHelper.schema(Collections.emptyList())
+    );
+    assertSchema(
+        SchemaBuilder.map(Schema.OPTIONAL_STRING_SCHEMA, Schema.OPTIONAL_STRING_SCHEMA).optional().build(),
+        SchemaHelper.schema(Collections.emptyMap())
+    );
+  }
+
+  @Test
+  public void struct() {
+    final Schema schema = SchemaBuilder.struct().field("a", Schema.STRING_SCHEMA).build();
+    final Struct struct = new Struct(schema).put("a", "a");
+    assertSame(schema, SchemaHelper.schema(struct));
+    assertSame(schema, SchemaHelper.schema(Arrays.asList(struct, struct)).valueSchema());
+  }
+
+  @Test
+  public void incompatibleElements() {
+    assertThrows(UnsupportedOperationException.class, () -> SchemaHelper.schema(Arrays.asList("a", 1)));
+    assertThrows(UnsupportedOperationException.class, () -> SchemaHelper.schema(Arrays.asList(1, 1L)));
+  }
+
+  @Test
+  public void shapeSchemasByIdentity() {
+    final Schema array = SchemaHelper.arraySchema(Schema.OPTIONAL_STRING_SCHEMA);
+    final Schema map = SchemaHelper.mapSchema(Schema.OPTIONAL_STRING_SCHEMA, Schema.OPTIONAL_STRING_SCHEMA);
+    assertSame(array, SchemaHelper.arraySchema(Schema.OPTIONAL_STRING_SCHEMA));
+    assertSame(map, SchemaHelper.mapSchema(Schema.OPTIONAL_STRING_SCHEMA, Schema.OPTIONAL_STRING_SCHEMA));
+    assertEquals(Schema.Type.ARRAY, array.type());
+    assertEquals(Schema.Type.MAP, map.type());
+
+    final Schema equalElement = SchemaBuilder.string().optional().build();
+    assertEquals(Schema.OPTIONAL_STRING_SCHEMA, equalElement);
+    assertNotSame(array, SchemaHelper.arraySchema(equalElement));
+
+    for (int i = 0; i < SchemaHelper.SHAPE_CACHE_SIZE * 2; i++) {
+      SchemaHelper.mapSchema(SchemaBuilder.string().optional().build(), Schema.OPTIONAL_STRING_SCHEMA);
+    }
+    assertTrue(SchemaHelper.SHAPE_SCHEMAS.size() <= SchemaHelper.SHAPE_CACHE_SIZE);
+  }
 }
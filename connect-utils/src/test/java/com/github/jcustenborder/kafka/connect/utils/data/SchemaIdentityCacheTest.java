@@ -0,0 +1,44 @@
+package com.github.jcustenborder.kafka.connect.utils.data;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SchemaIdentityCacheTest {
+
+  @Test
+  public void identity() {
+    final AtomicInteger calls = new AtomicInteger();
+    SchemaIdentityCache<Integer> cache = new SchemaIdentityCache<>(10);
+    final Schema first = SchemaBuilder.string().build();
+    final Schema second = SchemaBuilder.string().build();
+    assertEquals(first, second);
+
+    assertEquals(1, cache.get(first, s -> calls.incrementAndGet()));
+    assertEquals(1, cache.get(first, s -> calls.incrementAndGet()));
+    assertEquals(2, cache.get(second, s -> calls.incrementAndGet()));
+    assertEquals(1, cache.get(first, s -> calls.incrementAndGet()));
+    assertEquals(2, calls.get());
+    assertEquals(2, cache.size());
+    assertEquals(2, cache.getIfPresent(second));
+
+    cache.clear();
+    assertNull(cache.getIfPresent(first));
+  }
+
+  @Test
+  public void loaderException() {
+    SchemaIdentityCache<Integer> cache = new SchemaIdentityCache<>(10);
+    assertThrows(UnsupportedOperationException.class, () -> cache.get(Schema.STRING_SCHEMA, s -> {
+      throw new UnsupportedOperationException();
+    }));
+    assertNull(cache.getIfPresent(Schema.STRING_SCHEMA));
+    assertThrows(NullPointerException.class, () -> cache.get(Schema.STRING_SCHEMA, s -> null));
+  }
+}
@@ -28,13 +28,17 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.DynamicTest.dynamicTest;
 
@@ -131,6 +135,43 @@ public class SchemaKeyTest {
     }));
   }
 
+  @TestFactory
+  public Stream<DynamicTest> hashCodes() {
+    return tests.stream().filter(test -> test.equals).map(test -> dynamicTest(test.toString(), () -> {
+      final SchemaKey left = SchemaKey.of(test.left);
+      final SchemaKey right = SchemaKey.of(test.right);
+      assertEquals(left, right);
+      assertEquals(left.hashCode(), right.hashCode());
+    }));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> lookup() {
+    final SchemaKey.Lookup lookup = new SchemaKey.Lookup();
+    return tests.stream().map(test -> dynamicTest(test.toString(), () -> {
+      final Map<SchemaKey, Schema> map = new HashMap<>();
+      map.put(SchemaKey.of(test.left), test.left);
+      final Schema actual = map.get(lookup.set(test.right));
+      if (test.equals) {
+        assertSame(test.left, actual);
+      } else {
+        assertNull(actual);
+      }
+      final SchemaKey key = SchemaKey.of(test.left);
+      assertEquals(test.equals, lookup.equals(key));
+      assertEquals(test.equals, key.equals(lookup));
+    }));
+  }
+
+  @org.junit.jupiter.api.Test
+  public void nullNameAndVersion() {
+    final SchemaKey unnamed = SchemaKey.of(SchemaBuilder.string().build());
+    final SchemaKey empty = SchemaKey.of(SchemaBuilder.string().name("").version(0).build());
+    assertEquals(0, unnamed.compareTo(empty));
+    assertEquals(unnamed, empty);
+    assertEquals(unnamed.hashCode(), empty.hashCode());
+  }
+
   static Test test(Schema left, Schema right, boolean equals) {
     return new Test(left, right, equals);
   }
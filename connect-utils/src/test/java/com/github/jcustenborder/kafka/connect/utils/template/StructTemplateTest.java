@@ -16,18 +16,44 @@
 package com.github.jcustenborder.kafka.connect.utils.template;
 
 import com.google.common.collect.ImmutableMap;
+import freemarker.template.TemplateBooleanModel;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateNumberModel;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.ConnectHeaders;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class StructTemplateTest {
 
@@ -97,4 +123,310 @@ public class StructTemplateTest {
     String actual = this.structTemplate.execute("test", this.struct);
     assertEquals("TestValue", actual);
   }
+
+  @Test
+  public void invalidTemplate() {
+    assertThrows(DataException.class, () -> this.structTemplate.addTemplate("test", "${stringField"));
+  }
+
+  @Test
+  public void replaceTemplate() {
+    this.structTemplate.addTemplate("test", "first ${stringField}");
+    assertEquals("first TestValue", this.structTemplate.execute("test", this.struct));
+    this.structTemplate.addTemplate("test", "second ${stringField}");
+    assertEquals("second TestValue", this.structTemplate.execute("test", this.struct));
+  }
+
+  @Test
+  public void replaceIncludedTemplate() {
+    this.structTemplate.addTemplate("header", "first ");
+    this.structTemplate.addTemplate("test", "<#include \"header\">${stringField}");
+    assertEquals("first TestValue", this.structTemplate.execute("test", this.struct));
+    this.structTemplate.addTemplate("header", "second ");
+    assertEquals("second TestValue", this.structTemplate.execute("test", this.struct));
+  }
+
+  @Test
+  public void replaceWithInvalidTemplate() {
+    this.structTemplate.addTemplate("header", "first ");
+    this.structTemplate.addTemplate("test", "<#include \"header\">${stringField}");
+    assertEquals("first TestValue", this.structTemplate.execute("test", this.struct));
+    assertThrows(DataException.class, () -> this.structTemplate.addTemplate("header", "${stringField"));
+    assertThrows(DataException.class, () -> this.structTemplate.execute("header", this.struct));
+    assertThrows(ConnectException.class, () -> this.structTemplate.execute("test", this.struct));
+  }
+
+  @Test
+  public void bufferIsReset() {
+    this.structTemplate.addTemplate("long", "<#list 1..100000 as i>x</#list>");
+    this.structTemplate.addTemplate("short", "${stringField}");
+    assertEquals(100000, this.structTemplate.execute("long", this.struct).length());
+    assertEquals("TestValue", this.structTemplate.execute("short", this.struct));
+    assertEquals("TestValue", this.structTemplate.execute("short", this.struct));
+  }
+
+  @Test
+  public void simpleTemplateCompile() {
+    assertNotNull(SimpleTemplate.compile("prefix-${stringField}-${ topic }-suffix"));
+    assertNotNull(SimpleTemplate.compile("no interpolations"));
+    assertNull(SimpleTemplate.compile("${stringField?upper_case}"));
+    assertNull(SimpleTemplate.compile("${a.b}"));
+    assertNull(SimpleTemplate.compile("<#if true>${stringField}</#if>"));
+    assertNull(SimpleTemplate.compile("#{number}"));
+  }
+
+  @Test
+  public void simpleTemplate() {
+    this.structTemplate.addTemplate("test", "${topic}/${stringField}.json");
+    SinkRecord record = new SinkRecord("testing", 1, null, null, this.struct.schema(), this.struct, 123456L);
+    assertEquals("testing/TestValue.json", this.structTemplate.execute("test", record, this.struct, ImmutableMap.of()));
+    assertEquals("topic/value.json", this.structTemplate.execute("test", ImmutableMap.of("topic", "topic", "stringField", "value")));
+  }
+
+  @Test
+  public void simpleTemplateResolvesFieldsOncePerSchema() {
+    final SimpleTemplate template = SimpleTemplate.compile("${stringField}-${missing}");
+    final Field[] fields = template.fields(this.struct.schema());
+    assertSame(fields, template.fields(this.struct.schema()));
+    assertSame(this.struct.schema().field("stringField"), fields[0]);
+    assertNull(fields[1]);
+
+    final StringBuilder builder = new StringBuilder();
+    assertTrue(SimpleTemplate.compile("${stringField}.json").render(this.struct, builder));
+    assertEquals("TestValue.json", builder.toString());
+  }
+
+  @Test
+  public void simpleTemplateFallback() {
+    this.structTemplate.addTemplate("test", "${topic}-${partition}-${nullStringField}");
+    SinkRecord record = new SinkRecord("testing", 7, null, null, this.struct.schema(), this.struct, 123456L);
+    assertEquals("testing-7-", this.structTemplate.execute("test", record, this.struct, ImmutableMap.of()));
+  }
+
+  @Test
+  public void hashModelSharesImmutableModels() throws TemplateModelException {
+    final Schema schema = SchemaBuilder.struct()
+        .field("intField", Schema.INT32_SCHEMA)
+        .field("largeLongField", Schema.INT64_SCHEMA)
+        .field("booleanField", Schema.BOOLEAN_SCHEMA)
+        .build();
+    final Struct struct = new Struct(schema)
+        .put("intField", 12)
+        .put("largeLongField", 123456789L)
+        .put("booleanField", true);
+    final SinkRecord record = new SinkRecord("testing", 3, null, null, schema, struct, 1L);
+    final ConnectTemplateHashModel first = new ConnectTemplateHashModel(record, struct);
+    final ConnectTemplateHashModel second = new ConnectTemplateHashModel(record, struct);
+    final ConnectTemplateHashModel.TopicCache topics = new ConnectTemplateHashModel.TopicCache();
+    first.bind(topics, null);
+    second.bind(topics, null);
+    assertSame(first.get("topic"), second.get("topic"));
+    assertSame(first.get("partition"), second.get("partition"));
+    assertSame(first.get("intField"), second.get("intField"));
+    assertSame(TemplateBooleanModel.TRUE, first.get("booleanField"));
+    assertEquals(123456789L, ((TemplateNumberModel) first.get("largeLongField")).getAsNumber());
+    assertSame(TemplateModel.NOTHING, first.get("missing"));
+
+    this.structTemplate.addTemplate("test", "${topic} ${partition} ${intField} ${booleanField?c} ${largeLongField?c}");
+    assertEquals("testing 3 12 true 123456789", this.structTemplate.execute("test", record, struct, ImmutableMap.of()));
+  }
+
+  @Test
+  public void hashModelResolvesFieldsOncePerSchema() throws TemplateModelException {
+    final TemplateFields templateFields = TemplateFields.of("${stringField} ${header}");
+    assertSame(templateFields.fields(this.struct.schema()), templateFields.fields(this.struct.schema()));
+    final SinkRecord record = new SinkRecord("testing", 1, null, null, this.struct.schema(), this.struct, 1L);
+    final ConnectTemplateHashModel model = new ConnectTemplateHashModel(record, this.struct);
+    model.bind(new ConnectTemplateHashModel.TopicCache(), templateFields);
+    assertSame(templateFields.fields(this.struct.schema()), model.fields);
+    assertEquals("TestValue", model.value("stringField"));
+    assertNull(model.value("header"));
+    // Names that are not in the template text are looked up in the schema.
+    assertNull(model.value("nullStringField"));
+  }
+
+  @Test
+  public void topicCachePerTemplate() {
+    this.structTemplate.addTemplate("first", "${topic?lower_case}");
+    this.structTemplate.addTemplate("second", "${topic?lower_case}-${stringField}");
+    final SinkRecord first = new SinkRecord("first", 1, null, null, this.struct.schema(), this.struct, 1L);
+    final SinkRecord second = new SinkRecord("second", 1, null, null, this.struct.schema(), this.struct, 1L);
+    assertEquals("first", this.structTemplate.execute("first", first, this.struct, null));
+    assertEquals("second-TestValue", this.structTemplate.execute("second", second, this.struct, null));
+    assertEquals("first", this.structTemplate.templates.get("first").topics.last.topic);
+    assertEquals("second", this.structTemplate.templates.get("second").topics.last.topic);
+  }
+
+  @Test
+  public void nullRecord() {
+    final Map<String, ?> values = ImmutableMap.of("key", "value");
+    this.structTemplate.addTemplate("field", "${stringField}");
+    this.structTemplate.addTemplate("missing", "${stringField}${missing!}");
+    this.structTemplate.addTemplate("builtin", "${stringField?upper_case}");
+    this.structTemplate.addTemplate("record", "${topic!}${partition!}${key}");
+    assertEquals("TestValue", this.structTemplate.execute("field", null, this.struct, values));
+    assertEquals("TestValue", this.structTemplate.execute("missing", null, this.struct, values));
+    assertEquals("TESTVALUE", this.structTemplate.execute("builtin", null, this.struct, values));
+    assertEquals("value", this.structTemplate.execute("record", null, this.struct, values));
+  }
+
+  @Test
+  public void nullRecordResultCache() {
+    final Map<String, ?> values = ImmutableMap.of("key", "value");
+    final StructTemplate template = StructTemplateBuilder.of()
+        .addTemplate("field", "${stringField}")
+        .addTemplate("missing", "${stringField}${missing!}")
+        .addTemplate("builtin", "${stringField?upper_case}")
+        .addTemplate("record", "${topic!}${partition!}${key}")
+        .resultCacheSize(10)
+        .build();
+    for (int i = 0; i < 2; i++) {
+      assertEquals("TestValue", template.execute("field", null, this.struct, values));
+      assertEquals("TestValue", template.execute("missing", null, this.struct, values));
+      assertEquals("TESTVALUE", template.execute("builtin", null, this.struct, values));
+      assertEquals("value", template.execute("record", null, this.struct, values));
+    }
+  }
+
+  @Test
+  public void builder() {
+    final StructTemplate template = StructTemplateBuilder.of()
+        .addTemplate("header", "Value: ")
+        .addTemplate("test", "<#include \"header\">${stringField}")
+        .build();
+    assertEquals("Value: TestValue", template.execute("test", this.struct));
+    assertThrows(IllegalStateException.class, () -> template.addTemplate("other", "${stringField}"));
+  }
+
+  @Test
+  public void concurrentExecute() throws Exception {
+    final StructTemplate template = StructTemplateBuilder.of()
+        .addTemplate("simple", "${stringField}")
+        .addTemplate("freemarker", "${stringField?upper_case}")
+        .build();
+    final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executorService.submit(() -> {
+          for (int j = 0; j < 1000; j++) {
+            assertEquals("TestValue", template.execute("simple", this.struct));
+            assertEquals("TESTVALUE", template.execute("freemarker", this.struct));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  public void executeWriter() {
+    this.structTemplate.addTemplate("simple", "${stringField}");
+    this.structTemplate.addTemplate("freemarker", "${stringField?upper_case}");
+    final StringWriter writer = new StringWriter();
+    this.structTemplate.execute("simple", this.struct, writer);
+    this.structTemplate.execute("freemarker", this.struct, writer);
+    assertEquals("TestValueTESTVALUE", writer.toString());
+  }
+
+  @Test
+  public void executeOutputStream() {
+    this.structTemplate.addTemplate("test", "\u00e9<#list 1..10000 as i>\u20ac</#list>${stringField}");
+    final String expected = this.structTemplate.execute("test", this.struct);
+    for (Charset charset : Arrays.asList(StandardCharsets.UTF_8, StandardCharsets.UTF_16, StandardCharsets.ISO_8859_1)) {
+      final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      this.structTemplate.execute("test", this.struct, outputStream, charset);
+      assertArrayEquals(expected.getBytes(charset), outputStream.toByteArray(), charset.name());
+    }
+  }
+
+  @Test
+  public void executeByteBuffer() {
+    this.structTemplate.addTemplate("test", "${topic}/${stringField}");
+    SinkRecord record = new SinkRecord("testing", 1, null, null, this.struct.schema(), this.struct, 123456L);
+    final ByteBuffer buffer = ByteBuffer.allocate(64);
+    buffer.put((byte) 'x');
+    final int written = this.structTemplate.execute("test", record, this.struct, ImmutableMap.of(), buffer, StandardCharsets.UTF_8);
+    assertEquals("testing/TestValue".length(), written);
+    assertEquals(written + 1, buffer.position());
+    assertEquals("xtesting/TestValue", new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+
+    final ByteBuffer small = ByteBuffer.allocate(4);
+    assertThrows(BufferOverflowException.class, () -> this.structTemplate.execute("test", record, this.struct, ImmutableMap.of(), small, StandardCharsets.UTF_8));
+    assertEquals(0, small.position());
+  }
+
+  @Test
+  public void resultCache() {
+    final StructTemplate template = StructTemplateBuilder.of()
+        .addTemplate("test", "${tenant?lower_case}-<#if region == \"us\">us-east<#else>${region}</#if>")
+        .addTemplate("now", "${tenant}-${.now?long}")
+        .resultCacheSize(10)
+        .build();
+    assertNotNull(template.templates.get("test").resultCache);
+    assertNull(template.templates.get("now").resultCache);
+
+    final String first = template.execute("test", ImmutableMap.of("tenant", "ACME", "region", "us"));
+    assertEquals("acme-us-east", first);
+    assertSame(first, template.execute("test", ImmutableMap.of("tenant", "ACME", "region", "us")));
+    assertEquals("acme-eu", template.execute("test", ImmutableMap.of("tenant", "ACME", "region", "eu")));
+    assertEquals("other-us-east", template.execute("test", ImmutableMap.of("tenant", "OTHER", "region", "us")));
+
+    final Map<String, Object> nested = ImmutableMap.of("tenant", ImmutableMap.of("a", "b"), "region", "eu");
+    assertNull(template.templates.get("test").resultCache.key(nested));
+  }
+
+  @Test
+  public void resultCacheStructKeyUsesSchemaIdentity() {
+    final StructTemplate template = StructTemplateBuilder.of()
+        .addTemplate("test", "${stringField?upper_case}")
+        .resultCacheSize(10)
+        .build();
+    final ResultCache resultCache = template.templates.get("test").resultCache;
+    final Struct copy = new Struct(
+        SchemaBuilder.struct()
+            .name("TestStruct")
+            .field("stringField", Schema.STRING_SCHEMA)
+            .field("nullStringField", Schema.OPTIONAL_STRING_SCHEMA)
+            .build()
+    ).put("stringField", "TestValue");
+    assertEquals(this.struct.schema(), copy.schema());
+    assertEquals(resultCache.key(this.struct), resultCache.key(this.struct));
+    assertNotEquals(resultCache.key(this.struct), resultCache.key(copy));
+    assertEquals("TESTVALUE", template.execute("test", copy));
+  }
+
+  @Test
+  public void resultCacheRecord() {
+    final StructTemplate template = StructTemplateBuilder.of()
+        .addTemplate("test", "${topic}-${stringField?upper_case}")
+        .resultCacheSize(10)
+        .build();
+    SinkRecord record = new SinkRecord("testing", 1, null, null, this.struct.schema(), this.struct, 123456L);
+    final String first = template.execute("test", record, this.struct, ImmutableMap.of());
+    assertEquals("testing-TESTVALUE", first);
+    assertSame(first, template.execute("test", record, this.struct, ImmutableMap.of()));
+    SinkRecord other = new SinkRecord("other", 1, null, null, this.struct.schema(), this.struct, 123456L);
+    assertEquals("other-TESTVALUE", template.execute("test", other, this.struct, ImmutableMap.of()));
+  }
+
+  @Test
+  public void additionalValues() {
+    this.structTemplate.addTemplate("test", "${topic}/${stringField}/${header}/${key}/${extra}");
+    final ConnectHeaders headers = new ConnectHeaders();
+    headers.addString("header", "first");
+    headers.addString("header", "second");
+    headers.addString("stringField", "shadowed");
+    final SinkRecord record = new SinkRecord("testing", 1, null, null, this.struct.schema(), this.struct, 123456L, 1L, TimestampType.CREATE_TIME, headers);
+    final Map<String, ?> values = ImmutableMap.of("key", "value", "header", "shadowed", "extra", 1);
+    assertEquals("testing/TestValue/second/value/1", this.structTemplate.execute("test", record, this.struct, values));
+
+    this.structTemplate.addTemplate("missing", "${key}");
+    final SinkRecord noHeaders = new SinkRecord("testing", 1, null, null, this.struct.schema(), this.struct, 123456L);
+    assertEquals("", this.structTemplate.execute("missing", noHeaders, this.struct, null));
+  }
 }
@@ -1,14 +1,34 @@
 package com.github.jcustenborder.kafka.connect.utils.transformation;
 
+import com.github.jcustenborder.kafka.connect.utils.data.SchemaBuilders;
 import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.record.TimestampType;
 import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Header;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 public class BaseKeyValueTransformationTest {
   static class Base<R extends ConnectRecord<R>> extends BaseKeyValueTransformation<R> {
 
@@ -57,4 +77,306 @@ public class BaseKeyValueTransformationTest {
     transformation.apply(record);
   }
 
+  @Test
+  public void dispatch() {
+    assertEquals(BaseKeyValueTransformation.Dispatch.TIMESTAMP, BaseKeyValueTransformation.Dispatch.of(Timestamp.SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.DATE, BaseKeyValueTransformation.Dispatch.of(Date.SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.TIME, BaseKeyValueTransformation.Dispatch.of(Time.SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.DECIMAL, BaseKeyValueTransformation.Dispatch.of(Decimal.schema(2)));
+    assertEquals(BaseKeyValueTransformation.Dispatch.INT64, BaseKeyValueTransformation.Dispatch.of(Schema.INT64_SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.INT32, BaseKeyValueTransformation.Dispatch.of(Schema.INT32_SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.BYTES, BaseKeyValueTransformation.Dispatch.of(Schema.BYTES_SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.STRING, BaseKeyValueTransformation.Dispatch.of(Schema.STRING_SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.STRUCT, BaseKeyValueTransformation.Dispatch.of(SchemaBuilder.struct().build()));
+    assertEquals(
+        BaseKeyValueTransformation.Dispatch.MAP,
+        BaseKeyValueTransformation.Dispatch.of(SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.STRING_SCHEMA).build())
+    );
+  }
+
+  @Test
+  public void dispatchCache() {
+    StringTransformation<SinkRecord> transformation = new StringTransformation<>();
+    assertEquals(BaseKeyValueTransformation.Dispatch.STRING, transformation.dispatch(Schema.STRING_SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.INT64, transformation.dispatch(Schema.INT64_SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.TIMESTAMP, transformation.dispatch(Timestamp.SCHEMA));
+    assertEquals(BaseKeyValueTransformation.Dispatch.TIMESTAMP, transformation.dispatch(Timestamp.SCHEMA));
+  }
+
+  static class DropFieldTransformation<R extends ConnectRecord<R>> extends Base<R> {
+    int outputSchemaCalls = 0;
+
+    public DropFieldTransformation() {
+      super(false);
+    }
+
+    @Override
+    protected Schema outputSchema(Schema inputSchema) {
+      this.outputSchemaCalls++;
+      return SchemaBuilders.of(inputSchema, "drop").build();
+    }
+
+    @Override
+    protected Object transformValue(Struct input, Schema outputSchema) {
+      final Struct result = new Struct(outputSchema);
+      for (Field field : outputSchema.fields()) {
+        result.put(field, input.get(field.name()));
+      }
+      return result;
+    }
+  }
+
+  @Test
+  public void outputSchemaIsCached() {
+    final Schema schema = SchemaBuilder.struct()
+        .field("keep", Schema.STRING_SCHEMA)
+        .field("drop", Schema.STRING_SCHEMA)
+        .build();
+    DropFieldTransformation<SinkRecord> transformation = new DropFieldTransformation<>();
+    Schema previousSchema = null;
+    for (int i = 0; i < 10; i++) {
+      final Struct value = new Struct(schema)
+          .put("keep", "keep" + i)
+          .put("drop", "drop" + i);
+      final SinkRecord record = new SinkRecord("testing", 1, null, null, schema, value, i);
+      final SinkRecord result = transformation.apply(record);
+      final Struct resultValue = (Struct) result.value();
+      assertEquals("keep" + i, resultValue.get("keep"));
+      assertEquals(1, result.valueSchema().fields().size());
+      if (null != previousSchema) {
+        assertSame(previousSchema, result.valueSchema());
+      }
+      previousSchema = result.valueSchema();
+    }
+    assertEquals(1, transformation.outputSchemaCalls);
+  }
+
+  @Test
+  public void structNotSupported() {
+    StringTransformation<SinkRecord> transformation = new StringTransformation<>();
+    final Schema schema = SchemaBuilder.struct().field("a", Schema.STRING_SCHEMA).build();
+    final SinkRecord record = new SinkRecord("testing", 1, schema, new Struct(schema).put("a", "a"), null, null, 1L);
+    assertThrows(UnsupportedOperationException.class, () -> transformation.apply(record));
+  }
+
+  static class OverridesProcess<R extends ConnectRecord<R>> extends StringTransformation<R> {
+    int calls = 0;
+
+    @Override
+    protected SchemaAndValue process(R record, SchemaAndValue input) {
+      this.calls++;
+      return super.process(record, input);
+    }
+  }
+
+  @Test
+  public void applyAll() {
+    StringTransformation<SinkRecord> transformation = new StringTransformation<>();
+    final List<SinkRecord> records = Arrays.asList(
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "foo", Schema.INT64_SCHEMA, 1L, 1L),
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "bar", Schema.INT64_SCHEMA, 2L, 2L)
+    );
+    final List<SinkRecord> results = transformation.applyAll(records);
+    assertEquals(2, results.size());
+    for (int i = 0; i < records.size(); i++) {
+      assertEquals(records.get(i), results.get(i));
+    }
+  }
+
+  /**
+   * Upper cases string keys, widens int32 keys and drops records with the key "drop".
+   */
+  static class DroppingTransformation<R extends ConnectRecord<R>> extends Base<R> {
+    DroppingTransformation() {
+      super(true);
+    }
+
+    @Override
+    public R apply(R record) {
+      if ("drop".equals(record.key())) {
+        return null;
+      }
+      return super.apply(record);
+    }
+
+    @Override
+    protected SchemaAndValue processString(R record, Schema inputSchema, String input) {
+      return new SchemaAndValue(inputSchema, input.toUpperCase());
+    }
+
+    @Override
+    protected SchemaAndValue processInt32(R record, Schema inputSchema, int input) {
+      return new SchemaAndValue(Schema.INT64_SCHEMA, (long) input);
+    }
+  }
+
+  @Test
+  public void applyAllDropsNullResults() {
+    DroppingTransformation<SinkRecord> transformation = new DroppingTransformation<>();
+    final List<SinkRecord> records = Arrays.asList(
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "drop", null, null, 1L),
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "foo", null, null, 2L),
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "drop", null, null, 3L),
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "drop", null, null, 4L)
+    );
+    final List<SinkRecord> results = transformation.applyAll(records);
+    assertEquals(1, results.size());
+    assertEquals("FOO", results.get(0).key());
+    assertEquals(2L, results.get(0).kafkaOffset());
+    assertTrue(transformation.applyAll(records.subList(0, 1)).isEmpty());
+  }
+
+  @Test
+  public void applyAllMixedSchemasKeepsOrder() {
+    DroppingTransformation<SinkRecord> transformation = new DroppingTransformation<>();
+    final List<SinkRecord> records = Arrays.asList(
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "a", null, null, 1L),
+        new SinkRecord("testing", 1, Schema.INT32_SCHEMA, 1, null, null, 2L),
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "drop", null, null, 3L),
+        new SinkRecord("testing", 1, Schema.INT32_SCHEMA, 2, null, null, 4L),
+        new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "b", null, null, 5L)
+    );
+    final List<SinkRecord> results = transformation.applyAll(records);
+    final List<Object> keys = new ArrayList<>();
+    final List<Schema> schemas = new ArrayList<>();
+    final List<Long> offsets = new ArrayList<>();
+    for (SinkRecord result : results) {
+      keys.add(result.key());
+      schemas.add(result.keySchema());
+      offsets.add(result.kafkaOffset());
+    }
+    assertEquals(Arrays.asList("A", 1L, 2L, "B"), keys);
+    assertEquals(
+        Arrays.asList(Schema.STRING_SCHEMA, Schema.INT64_SCHEMA, Schema.INT64_SCHEMA, Schema.STRING_SCHEMA),
+        schemas
+    );
+    assertEquals(Arrays.asList(1L, 2L, 4L, 5L), offsets);
+  }
+
+  @Test
+  public void processOverrideIsCalled() {
+    OverridesProcess<SinkRecord> transformation = new OverridesProcess<>();
+    transformation.apply(new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "foo", null, null, 1L));
+    assertEquals(1, transformation.calls);
+  }
+
+  @Test
+  public void unchangedRecordIsReturned() {
+    StringTransformation<SinkRecord> transformation = new StringTransformation<>();
+    final SinkRecord record = new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "foo", null, null, 1L);
+    assertSame(record, transformation.apply(record));
+  }
+
+  @Test
+  public void changedRecordIsCopied() {
+    StringTransformation<SinkRecord> transformation = new StringTransformation<SinkRecord>() {
+      @Override
+      protected SchemaAndValue processString(SinkRecord record, Schema inputSchema, String input) {
+        return new SchemaAndValue(inputSchema, input.toUpperCase());
+      }
+    };
+    final SinkRecord record = new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "foo", null, null, 1L);
+    final SinkRecord actual = transformation.apply(record);
+    assertNotSame(record, actual);
+    assertEquals("FOO", actual.key());
+  }
+
+  @Test
+  public void shouldProcess() {
+    StringTransformation<SinkRecord> transformation = new StringTransformation<SinkRecord>() {
+      @Override
+      protected boolean shouldProcess(SinkRecord record) {
+        return "testing".equals(record.topic());
+      }
+    };
+    final Schema schema = SchemaBuilder.struct().field("a", Schema.STRING_SCHEMA).build();
+    final SinkRecord skipped = new SinkRecord("skipped", 1, schema, new Struct(schema).put("a", "a"), null, null, 1L);
+    assertSame(skipped, transformation.apply(skipped));
+    final SinkRecord processed = new SinkRecord("testing", 1, schema, new Struct(schema).put("a", "a"), null, null, 1L);
+    assertThrows(UnsupportedOperationException.class, () -> transformation.apply(processed));
+  }
+
+  static class UpperCaseHeaders<R extends ConnectRecord<R>> extends BaseKeyValueTransformation<R> {
+    UpperCaseHeaders() {
+      super(Target.HEADERS);
+    }
+
+    @Override
+    protected boolean shouldProcessHeader(R record, Header header) {
+      return header.key().startsWith("upper");
+    }
+
+    @Override
+    protected SchemaAndValue processString(R record, Schema inputSchema, String input) {
+      final String output = input.toUpperCase();
+      return output.equals(input) ? new SchemaAndValue(inputSchema, input) : new SchemaAndValue(inputSchema, output);
+    }
+
+    @Override
+    protected SchemaAndValue processInt32(R record, Schema inputSchema, int input) {
+      return new SchemaAndValue(Schema.INT64_SCHEMA, (long) input);
+    }
+
+    @Override
+    public ConfigDef config() {
+      return null;
+    }
+
+    @Override
+    public void close() {
+
+    }
+
+    @Override
+    public void configure(Map<String, ?> map) {
+
+    }
+  }
+
+  @Test
+  public void headers() {
+    UpperCaseHeaders<SinkRecord> transformation = new UpperCaseHeaders<>();
+    final ConnectHeaders headers = new ConnectHeaders();
+    headers.addString("first", "foo");
+    headers.addString("upper", "foo");
+    headers.addInt("upper.int", 1);
+    headers.addString("last", "bar");
+    final SinkRecord record = new SinkRecord("testing", 1, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, "value", 1L, 1L, TimestampType.CREATE_TIME, headers);
+    final SinkRecord actual = transformation.apply(record);
+    assertNotSame(record, actual);
+    assertSame(record.value(), actual.value());
+    assertSame(record.key(), actual.key());
+    final List<String> keys = new ArrayList<>();
+    actual.headers().forEach(h -> keys.add(h.key()));
+    assertEquals(Arrays.asList("first", "upper", "upper.int", "last"), keys);
+    assertEquals("foo", actual.headers().lastWithName("first").value());
+    assertEquals("FOO", actual.headers().lastWithName("upper").value());
+    assertEquals(1L, actual.headers().lastWithName("upper.int").value());
+    assertEquals(Schema.INT64_SCHEMA, actual.headers().lastWithName("upper.int").schema());
+    assertEquals("foo", record.headers().lastWithName("upper").value());
+  }
+
+  @Test
+  public void headersUnchanged() {
+    UpperCaseHeaders<SinkRecord> transformation = new UpperCaseHeaders<>();
+    final ConnectHeaders headers = new ConnectHeaders();
+    headers.addString("upper", "FOO");
+    headers.addString("other", "foo");
+    final SinkRecord record = new SinkRecord("testing", 1, null, null, null, null, 1L, 1L, TimestampType.CREATE_TIME, headers);
+    assertSame(record, transformation.apply(record));
+  }
+
+  @Test
+  public void schemalessList() {
+    Base<SinkRecord> transformation = new Base<SinkRecord>(false) {
+      @Override
+      protected SchemaAndValue processArray(SinkRecord record, Schema inputSchema, List<Object> input) {
+        return new SchemaAndValue(inputSchema, input.size());
+      }
+    };
+    final SinkRecord record = new SinkRecord("testing", 1, null, null, null, Arrays.asList(1L, 2L), 1L);
+    final SinkRecord actual = transformation.apply(record);
+    assertEquals(2, actual.value());
+    assertEquals(Schema.Type.INT64, actual.valueSchema().valueSchema().type());
+  }
 }
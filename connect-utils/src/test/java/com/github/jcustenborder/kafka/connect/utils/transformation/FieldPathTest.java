@@ -0,0 +1,95 @@
+package com.github.jcustenborder.kafka.connect.utils.transformation;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FieldPathTest {
+  static final Schema C_SCHEMA = SchemaBuilder.struct()
+      .name("c")
+      .field("value", Schema.STRING_SCHEMA)
+      .field("other", Schema.INT32_SCHEMA)
+      .build();
+  static final Schema SIBLING_SCHEMA = SchemaBuilder.struct()
+      .name("sibling")
+      .field("value", Schema.STRING_SCHEMA)
+      .build();
+  static final Schema A_SCHEMA = SchemaBuilder.struct()
+      .name("a")
+      .doc("root")
+      .field("id", Schema.INT64_SCHEMA)
+      .field("b", SchemaBuilder.struct().optional().name("b").field("sibling", SIBLING_SCHEMA).field("c", C_SCHEMA).build())
+      .build();
+
+  static Struct struct() {
+    final Schema bSchema = A_SCHEMA.field("b").schema();
+    return new Struct(A_SCHEMA)
+        .put("id", 1L)
+        .put("b", new Struct(bSchema)
+            .put("sibling", new Struct(SIBLING_SCHEMA).put("value", "sibling"))
+            .put("c", new Struct(C_SCHEMA).put("value", "foo").put("other", 12))
+        );
+  }
+
+  @Test
+  public void get() {
+    final FieldPath path = FieldPath.of("b.c.value");
+    assertEquals(3, path.depth());
+    assertEquals("foo", path.get(struct()));
+    assertSame(Schema.STRING_SCHEMA, path.schema(A_SCHEMA));
+    assertNull(path.get(new Struct(A_SCHEMA).put("id", 1L)));
+  }
+
+  @Test
+  public void put() {
+    final FieldPath path = FieldPath.of("b.c.value");
+    final Struct input = struct();
+    final Struct actual = path.put(input, "bar");
+    assertNotSame(input, actual);
+    assertSame(A_SCHEMA, actual.schema());
+    assertEquals("bar", path.get(actual));
+    assertEquals("foo", path.get(input));
+    assertEquals(1L, actual.get("id"));
+    assertEquals(12, actual.getStruct("b").getStruct("c").get("other"));
+    assertSame(input.getStruct("b").getStruct("sibling"), actual.getStruct("b").getStruct("sibling"));
+  }
+
+  @Test
+  public void putWithSchema() {
+    final FieldPath path = FieldPath.of("b.c.value");
+    final Struct input = struct();
+    final Struct actual = path.put(input, Schema.INT64_SCHEMA, 1234L);
+    assertEquals(1234L, path.get(actual));
+    final Schema outputSchema = actual.schema();
+    assertEquals("a", outputSchema.name());
+    assertEquals("root", outputSchema.doc());
+    assertSame(Schema.INT64_SCHEMA, path.schema(outputSchema));
+    assertSame(outputSchema, path.schema(A_SCHEMA, Schema.INT64_SCHEMA));
+    assertSame(outputSchema, path.put(struct(), Schema.INT64_SCHEMA, 1L).schema());
+    assertSame(SIBLING_SCHEMA, outputSchema.field("b").schema().field("sibling").schema());
+    assertSame(input.getStruct("b").getStruct("sibling"), actual.getStruct("b").getStruct("sibling"));
+    assertSame(A_SCHEMA, path.schema(A_SCHEMA, Schema.STRING_SCHEMA));
+  }
+
+  @Test
+  public void nullParent() {
+    final FieldPath path = FieldPath.of("b.c.value");
+    assertThrows(DataException.class, () -> path.put(new Struct(A_SCHEMA).put("id", 1L), "bar"));
+  }
+
+  @Test
+  public void invalidPath() {
+    assertThrows(DataException.class, () -> FieldPath.of("b.missing").get(struct()));
+    assertThrows(DataException.class, () -> FieldPath.of("id.value").get(struct()));
+    assertThrows(IllegalArgumentException.class, () -> FieldPath.of("b..c"));
+    assertThrows(IllegalArgumentException.class, () -> FieldPath.of(""));
+  }
+}